@@ -0,0 +1,17 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "main-service.confirmed-requests.repair")
+public class ConfirmedRequestsRepairProperties {
+
+    private boolean enabled = true;
+    private Duration interval = Duration.ofMinutes(15);
+    private int batchSize = 500;
+}
@@ -0,0 +1,17 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "main-service.search-cache")
+public class SearchCacheProperties {
+
+    private boolean enabled = true;
+    private Duration expireAfter = Duration.ofSeconds(30);
+    private long maximumSize = 10000;
+}
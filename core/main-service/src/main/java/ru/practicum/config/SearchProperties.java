@@ -0,0 +1,13 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "main-service.search")
+public class SearchProperties {
+
+    private boolean fullText = true;
+}
@@ -0,0 +1,16 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "main-service.views")
+public class ViewCounterProperties {
+
+    private Duration flushInterval = Duration.ofSeconds(5);
+    private int batchSize = 500;
+}
@@ -5,9 +5,11 @@ import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.dto.event.EventFullDto;
+import ru.practicum.dto.event.EventPage;
 import ru.practicum.dto.event.UpdateEventAdminRequestDto;
 import ru.practicum.model.EventState;
 import ru.practicum.service.EventService;
@@ -24,16 +26,25 @@ public class AdminEventController {
     private final EventService eventService;
 
     @GetMapping
-    public List<EventFullDto> search(@RequestParam(required = false) List<Long> users,
-                                     @RequestParam(required = false) List<EventState> states,
-                                     @RequestParam(required = false) List<Long> categories,
-                                     @RequestParam(required = false)
-                                         @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeStart,
-                                     @RequestParam(required = false)
-                                         @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeEnd,
-                                     @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                     @RequestParam(defaultValue = "10") @Positive int size) {
-        return eventService.searchAdmin(users, states, categories, rangeStart, rangeEnd, from, size);
+    public ResponseEntity<List<EventFullDto>> search(@RequestParam(required = false) List<Long> users,
+                                                     @RequestParam(required = false) List<EventState> states,
+                                                     @RequestParam(required = false) List<Long> categories,
+                                                     @RequestParam(required = false)
+                                                         @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeStart,
+                                                     @RequestParam(required = false)
+                                                         @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeEnd,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                                     @RequestParam(defaultValue = "10") @Positive int size) {
+        EventPage<EventFullDto> page = eventService.searchAdmin(
+                users, states, categories, rangeStart, rangeEnd, cursor, from, size);
+        return ResponseEntity.ok()
+                .headers(headers -> {
+                    if (page.nextCursor() != null) {
+                        headers.add(EventPage.NEXT_CURSOR_HEADER, page.nextCursor());
+                    }
+                })
+                .body(page.events());
     }
 
     @PatchMapping("/{eventId}")
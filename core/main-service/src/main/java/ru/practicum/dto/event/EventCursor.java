@@ -0,0 +1,71 @@
+package ru.practicum.dto.event;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Позиция keyset-пагинации по событиям: значение ключа сортировки и id последнего события страницы.
+ * Для сортировок по дате заполнена eventDate, для сортировки по просмотрам - views; согласованность
+ * проверяется при создании, поэтому полученный курсор можно сразу подставлять в запрос.
+ */
+public record EventCursor(Order order, LocalDateTime eventDate, Long views, long id) {
+
+    public enum Order {
+        EVENT_DATE_ASC,
+        EVENT_DATE_DESC,
+        VIEWS_DESC;
+
+        public static Order forPublicSort(String sort) {
+            if ("VIEWS".equals(sort)) {
+                return VIEWS_DESC;
+            }
+            return "RELEVANCE".equals(sort) ? null : EVENT_DATE_ASC;
+        }
+    }
+
+    public EventCursor {
+        if (order == null) {
+            throw new IllegalArgumentException("Не указана сортировка курсора");
+        }
+        if (order == Order.VIEWS_DESC ? views == null : eventDate == null) {
+            throw new IllegalArgumentException("Курсор не содержит значения ключа сортировки " + order);
+        }
+    }
+
+    public static EventCursor after(Order order, LocalDateTime eventDate, Long views, Long id) {
+        return order == Order.VIEWS_DESC
+                ? new EventCursor(order, null, views, id)
+                : new EventCursor(order, eventDate, null, id);
+    }
+
+    public static EventCursor decode(String token, Order expected) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        if (expected == null) {
+            throw new IllegalArgumentException("Курсор не поддерживается для выбранной сортировки");
+        }
+        EventCursor cursor;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", 3);
+            Order order = Order.valueOf(parts[0]);
+            long id = Long.parseLong(parts[2]);
+            cursor = order == Order.VIEWS_DESC
+                    ? new EventCursor(order, null, Long.parseLong(parts[1]), id)
+                    : new EventCursor(order, LocalDateTime.parse(parts[1]), null, id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + token, e);
+        }
+        if (cursor.order() != expected) {
+            throw new IllegalArgumentException("Курсор получен для другой сортировки");
+        }
+        return cursor;
+    }
+
+    public String encode() {
+        Object key = order == Order.VIEWS_DESC ? views : eventDate;
+        String raw = order.name() + "|" + key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
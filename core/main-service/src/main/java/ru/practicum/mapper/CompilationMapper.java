@@ -14,6 +14,9 @@ public interface CompilationMapper {
     @Mapping(target = "events", source = "events")
     CompilationDto toDto(Compilation compilation);
 
+    @Mapping(target = "events", ignore = true)
+    CompilationDto toDtoWithoutEvents(Compilation compilation);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "events", ignore = true)
     Compilation toCompilation(NewCompilationDto newCompilationDto);
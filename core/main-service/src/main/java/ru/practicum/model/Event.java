@@ -65,11 +65,11 @@ public class Event {
     @Column(name = "request_moderation", nullable = false)
     Boolean requestModeration;
 
-    @Column(name = "confirmed_requests", nullable = false)
+    @Column(name = "confirmed_requests", nullable = false, updatable = false)
     @Builder.Default
     Integer confirmedRequests = 0;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     @Builder.Default
     Long views = 0L;
 }
@@ -1,7 +1,11 @@
 package ru.practicum.repository;
 
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.model.Event;
 
 import java.util.List;
@@ -9,9 +13,51 @@ import java.util.Optional;
 
 public interface EventRepository extends JpaRepository<Event, Long>, EventRepositoryCustom {
 
-    List<Event> findAllByInitiatorId(Long userId, Pageable pageable);
-
     Optional<Event> findByIdAndInitiatorId(Long eventId, Long userId);
 
     boolean existsByCategoryId(Long categoryId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Event e WHERE e.id = :eventId")
+    Optional<Event> findByIdForUpdate(@Param("eventId") Long eventId);
+
+    @Modifying
+    @Query(value = """
+            UPDATE events
+            SET confirmed_requests = confirmed_requests + :delta
+            WHERE id = :eventId
+              AND (participant_limit = 0 OR confirmed_requests + :delta <= participant_limit)
+            """, nativeQuery = true)
+    int incrementConfirmedRequests(@Param("eventId") Long eventId, @Param("delta") int delta);
+
+    @Modifying
+    @Query(value = """
+            UPDATE events
+            SET confirmed_requests = confirmed_requests - :delta
+            WHERE id = :eventId AND confirmed_requests >= :delta
+            """, nativeQuery = true)
+    int decrementConfirmedRequests(@Param("eventId") Long eventId, @Param("delta") int delta);
+
+    @Query(value = "SELECT confirmed_requests FROM events WHERE id = :eventId", nativeQuery = true)
+    int findConfirmedRequests(@Param("eventId") Long eventId);
+
+    @Query(value = """
+            SELECT id FROM events
+            WHERE id > :afterId
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE
+            """, nativeQuery = true)
+    List<Long> lockNextIds(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = """
+            UPDATE events e
+            SET confirmed_requests = (SELECT COUNT(*) FROM requests r
+                                      WHERE r.event_id = e.id AND r.status = 'CONFIRMED')
+            WHERE e.id BETWEEN :fromId AND :toId
+              AND e.confirmed_requests <> (SELECT COUNT(*) FROM requests r
+                                           WHERE r.event_id = e.id AND r.status = 'CONFIRMED')
+            """, nativeQuery = true)
+    int reconcileConfirmedRequests(@Param("fromId") long fromId, @Param("toId") long toId);
 }
@@ -1,10 +1,15 @@
 package ru.practicum.repository;
 
+import ru.practicum.dto.event.EventCursor;
+import ru.practicum.dto.event.EventShortDto;
 import ru.practicum.model.Event;
 import ru.practicum.model.EventState;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface EventRepositoryCustom {
 
@@ -13,16 +18,24 @@ public interface EventRepositoryCustom {
                                          List<Long> categories,
                                          LocalDateTime rangeStart,
                                          LocalDateTime rangeEnd,
+                                         EventCursor cursor,
                                          int from,
                                          int size);
 
-    List<Event> findPublishedEvents(String text,
-                                    List<Long> categories,
-                                    Boolean paid,
-                                    LocalDateTime rangeStart,
-                                    LocalDateTime rangeEnd,
-                                    Boolean onlyAvailable,
-                                    String sort,
-                                    int from,
-                                    int size);
+    List<EventShortDto> findPublishedEvents(String text,
+                                            List<Long> categories,
+                                            Boolean paid,
+                                            LocalDateTime rangeStart,
+                                            LocalDateTime rangeEnd,
+                                            Boolean onlyAvailable,
+                                            String sort,
+                                            EventCursor cursor,
+                                            int from,
+                                            int size);
+
+    List<EventShortDto> findShortEventsByIds(List<Long> eventIds);
+
+    List<EventShortDto> findShortEventsByInitiator(Long userId, int from, int size);
+
+    Map<Long, Set<EventShortDto>> findShortEventsByCompilations(Collection<Long> compilationIds);
 }
@@ -1,25 +1,40 @@
 package ru.practicum.repository;
 
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.ExpressionUtils;
 import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.QBean;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
+import ru.practicum.config.SearchProperties;
+import ru.practicum.dto.category.CategoryDto;
+import ru.practicum.dto.event.EventCursor;
+import ru.practicum.dto.event.EventShortDto;
+import ru.practicum.dto.user.UserShortDto;
 import ru.practicum.model.Event;
 import ru.practicum.model.QCategory;
+import ru.practicum.model.QCompilation;
 import ru.practicum.model.QEvent;
 import ru.practicum.model.QUser;
 import ru.practicum.model.EventState;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+
+import static ru.practicum.repository.EventSearchFunctionContributor.FTS_MATCH;
+import static ru.practicum.repository.EventSearchFunctionContributor.FTS_RANK;
 
 @Repository
 @RequiredArgsConstructor
 public class EventRepositoryImpl implements EventRepositoryCustom {
 
     private final EntityManager entityManager;
+    private final SearchProperties searchProperties;
 
     @Override
     public List<Event> findEventsByAdminFilters(List<Long> users,
@@ -27,6 +42,7 @@ public class EventRepositoryImpl implements EventRepositoryCustom {
                                                 List<Long> categories,
                                                 LocalDateTime rangeStart,
                                                 LocalDateTime rangeEnd,
+                                                EventCursor cursor,
                                                 int from,
                                                 int size) {
         QEvent e = QEvent.event;
@@ -44,23 +60,24 @@ public class EventRepositoryImpl implements EventRepositoryCustom {
         return queryFactory.selectFrom(e)
                 .leftJoin(e.initiator, u).fetchJoin()
                 .leftJoin(e.category, c).fetchJoin()
-                .where(byUsers, byStates, byCategories, afterStart, beforeEnd)
-                .orderBy(e.eventDate.desc())
-                .offset(from)
+                .where(byUsers, byStates, byCategories, afterStart, beforeEnd, seek(e, cursor))
+                .orderBy(e.eventDate.desc(), e.id.desc())
+                .offset(cursor == null ? from : 0)
                 .limit(size)
                 .fetch();
     }
 
     @Override
-    public List<Event> findPublishedEvents(String text,
-                                           List<Long> categories,
-                                           Boolean paid,
-                                           LocalDateTime rangeStart,
-                                           LocalDateTime rangeEnd,
-                                           Boolean onlyAvailable,
-                                           String sort,
-                                           int from,
-                                           int size) {
+    public List<EventShortDto> findPublishedEvents(String text,
+                                                   List<Long> categories,
+                                                   Boolean paid,
+                                                   LocalDateTime rangeStart,
+                                                   LocalDateTime rangeEnd,
+                                                   Boolean onlyAvailable,
+                                                   String sort,
+                                                   EventCursor cursor,
+                                                   int from,
+                                                   int size) {
         QEvent e = QEvent.event;
         QUser u = QUser.user;
         QCategory c = QCategory.category;
@@ -68,8 +85,15 @@ public class EventRepositoryImpl implements EventRepositoryCustom {
         JPAQueryFactory queryFactory = new JPAQueryFactory(entityManager);
 
         BooleanExpression statePub = e.state.eq(EventState.PUBLISHED);
-        BooleanExpression byText = (text == null || text.isBlank()) ? null : e.annotation.containsIgnoreCase(text)
-                .or(e.description.containsIgnoreCase(text));
+        boolean hasText = text != null && !text.isBlank();
+        boolean fullText = hasText && searchProperties.isFullText();
+        BooleanExpression byText = null;
+        if (fullText) {
+            byText = Expressions.booleanTemplate(FTS_MATCH + "({0}, {1}, {2}, {3})",
+                    e.title, e.annotation, e.description, text);
+        } else if (hasText) {
+            byText = e.annotation.containsIgnoreCase(text).or(e.description.containsIgnoreCase(text));
+        }
         BooleanExpression byCategories = (categories == null || categories.isEmpty()) ? null : e.category.id.in(categories);
         BooleanExpression byPaid = paid == null ? null : e.paid.eq(paid);
         BooleanExpression afterStart = (rangeStart == null) ? e.eventDate.goe(LocalDateTime.now()) : e.eventDate.goe(rangeStart);
@@ -78,16 +102,117 @@ public class EventRepositoryImpl implements EventRepositoryCustom {
         if (Boolean.TRUE.equals(onlyAvailable)) {
             available = e.participantLimit.eq(0).or(e.confirmedRequests.lt(e.participantLimit));
         }
-        OrderSpecifier<?> order = "VIEWS".equals(sort) ? e.views.desc() : e.eventDate.asc();
+        OrderSpecifier<?>[] order;
+        if ("VIEWS".equals(sort)) {
+            order = new OrderSpecifier<?>[]{e.views.desc(), e.id.desc()};
+        } else if ("RELEVANCE".equals(sort) && fullText) {
+            order = new OrderSpecifier<?>[]{Expressions.numberTemplate(Double.class, FTS_RANK + "({0}, {1}, {2}, {3})",
+                    e.title, e.annotation, e.description, text).desc(), e.id.asc()};
+        } else {
+            order = new OrderSpecifier<?>[]{e.eventDate.asc(), e.id.asc()};
+        }
 
-        return queryFactory.selectFrom(e)
-                .leftJoin(e.initiator, u).fetchJoin()
-                .leftJoin(e.category, c).fetchJoin()
-                .where(statePub, byText, byCategories, byPaid, afterStart, beforeEnd, available)
+        return queryFactory.select(shortDto(e, c, u))
+                .from(e)
+                .join(e.initiator, u)
+                .join(e.category, c)
+                .where(statePub, byText, byCategories, byPaid, afterStart, beforeEnd, available, seek(e, cursor))
                 .orderBy(order)
+                .offset(cursor == null ? from : 0)
+                .limit(size)
+                .fetch();
+    }
+
+    @Override
+    public List<EventShortDto> findShortEventsByIds(List<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return List.of();
+        }
+        QEvent e = QEvent.event;
+        QUser u = QUser.user;
+        QCategory c = QCategory.category;
+
+        Map<Long, EventShortDto> byId = new HashMap<>();
+        new JPAQueryFactory(entityManager).select(shortDto(e, c, u))
+                .from(e)
+                .join(e.initiator, u)
+                .join(e.category, c)
+                .where(e.id.in(eventIds))
+                .fetch()
+                .forEach(dto -> byId.put(dto.getId(), dto));
+
+        return eventIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public List<EventShortDto> findShortEventsByInitiator(Long userId, int from, int size) {
+        QEvent e = QEvent.event;
+        QUser u = QUser.user;
+        QCategory c = QCategory.category;
+
+        return new JPAQueryFactory(entityManager).select(shortDto(e, c, u))
+                .from(e)
+                .join(e.initiator, u)
+                .join(e.category, c)
+                .where(e.initiator.id.eq(userId))
+                .orderBy(e.id.asc())
                 .offset(from)
                 .limit(size)
                 .fetch();
     }
-}
 
+    @Override
+    public Map<Long, Set<EventShortDto>> findShortEventsByCompilations(Collection<Long> compilationIds) {
+        if (compilationIds.isEmpty()) {
+            return Map.of();
+        }
+        QCompilation comp = QCompilation.compilation;
+        QEvent e = QEvent.event;
+        QUser u = QUser.user;
+        QCategory c = QCategory.category;
+
+        List<Tuple> rows = new JPAQueryFactory(entityManager).select(comp.id, shortDto(e, c, u))
+                .from(comp)
+                .join(comp.events, e)
+                .join(e.initiator, u)
+                .join(e.category, c)
+                .where(comp.id.in(compilationIds))
+                .fetch();
+
+        Map<Long, Set<EventShortDto>> result = new HashMap<>();
+        for (Tuple row : rows) {
+            result.computeIfAbsent(row.get(comp.id), id -> new HashSet<>()).add(row.get(1, EventShortDto.class));
+        }
+        return result;
+    }
+
+    private QBean<EventShortDto> shortDto(QEvent e, QCategory c, QUser u) {
+        return Projections.bean(EventShortDto.class,
+                e.id,
+                e.annotation,
+                ExpressionUtils.as(Projections.constructor(CategoryDto.class, c.id, c.name), "category"),
+                e.confirmedRequests.longValue().as("confirmedRequests"),
+                e.eventDate,
+                ExpressionUtils.as(Projections.constructor(UserShortDto.class, u.id, u.name), "initiator"),
+                e.paid,
+                e.title,
+                e.views);
+    }
+
+    private BooleanExpression seek(QEvent e, EventCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        return switch (cursor.order()) {
+            case EVENT_DATE_ASC -> Expressions.booleanTemplate("({0}, {1}) > ({2}, {3})",
+                    e.eventDate, e.id, cursor.eventDate(), cursor.id());
+            case EVENT_DATE_DESC -> Expressions.booleanTemplate("({0}, {1}) < ({2}, {3})",
+                    e.eventDate, e.id, cursor.eventDate(), cursor.id());
+            case VIEWS_DESC -> Expressions.booleanTemplate("({0}, {1}) < ({2}, {3})",
+                    e.views, e.id, cursor.views(), cursor.id());
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+public class EventSearchFunctionContributor implements FunctionContributor {
+
+    public static final String FTS_MATCH = "fts_match";
+    public static final String FTS_RANK = "fts_rank";
+
+    private static final String SEARCH_VECTOR = """
+            (setweight(to_tsvector('russian', coalesce(?1, '')), 'A') \
+            || setweight(to_tsvector('russian', coalesce(?2, '')), 'B') \
+            || setweight(to_tsvector('russian', coalesce(?3, '')), 'C'))""";
+
+    private static final String SEARCH_QUERY = "websearch_to_tsquery('russian', ?4)";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        functionContributions.getFunctionRegistry().registerPattern(FTS_MATCH,
+                SEARCH_VECTOR + " @@ " + SEARCH_QUERY,
+                types.resolve(StandardBasicTypes.BOOLEAN));
+        functionContributions.getFunctionRegistry().registerPattern(FTS_RANK,
+                "ts_rank(" + SEARCH_VECTOR + ", " + SEARCH_QUERY + ")",
+                types.resolve(StandardBasicTypes.DOUBLE));
+    }
+}
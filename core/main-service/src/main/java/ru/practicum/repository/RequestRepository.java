@@ -1,9 +1,13 @@
 package ru.practicum.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.model.Request;
 import ru.practicum.model.RequestStatus;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,4 +28,16 @@ public interface RequestRepository extends JpaRepository<Request, Long> {
     List<Request> findAllByRequesterId(Long requesterId);
 
     List<Request> findAllByEventId(Long eventId);
+
+    List<Request> findAllByIdInOrderByCreatedAscIdAsc(Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            UPDATE Request r
+            SET r.status = :status
+            WHERE r.id IN :ids AND r.status = :expected
+            """)
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("expected") RequestStatus expected,
+                     @Param("status") RequestStatus status);
 }
\ No newline at end of file
@@ -6,7 +6,6 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.ViewStatsDto;
 import ru.practicum.client.StatsClient;
 import ru.practicum.dto.compilation.CompilationDto;
 import ru.practicum.dto.compilation.NewCompilationDto;
@@ -17,13 +16,10 @@ import ru.practicum.exception.NotFoundException;
 import ru.practicum.mapper.CompilationMapper;
 import ru.practicum.model.Compilation;
 import ru.practicum.model.Event;
-import ru.practicum.model.RequestStatus;
 import ru.practicum.repository.CompilationRepository;
 import ru.practicum.repository.EventRepository;
-import ru.practicum.repository.RequestRepository;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -37,7 +33,6 @@ public class CompilationServiceImpl implements CompilationService {
     private final EventRepository eventRepository;
     private final CompilationMapper compilationMapper;
     private final StatsClient statsClient;
-    private final RequestRepository requestRepository;
 
     @Override
     @Transactional(readOnly = true)
@@ -47,47 +42,49 @@ public class CompilationServiceImpl implements CompilationService {
         List<Compilation> compilations = (pinned != null)
                 ? compilationRepository.findByPinned(pinned, pageable).getContent()
                 : compilationRepository.findAll(pageable).getContent();
+        Map<Long, Set<EventShortDto>> eventsByCompilation = eventRepository.findShortEventsByCompilations(
+                compilations.stream().map(Compilation::getId).toList());
         List<CompilationDto> result = compilations.stream()
-                .map(compilationMapper::toDto)
-                .map(this::addConfirmedRequestsAndViews)
+                .map(compilationMapper::toDtoWithoutEvents)
+                .map(compilationDto -> {
+                    compilationDto.setEvents(eventsByCompilation.getOrDefault(compilationDto.getId(), new HashSet<>()));
+                    return compilationDto;
+                })
                 .collect(Collectors.toList());
+        Set<Long> eventIds = result.stream()
+                .filter(compilationDto -> compilationDto.getEvents() != null)
+                .flatMap(compilationDto -> compilationDto.getEvents().stream())
+                .map(EventShortDto::getId)
+                .collect(Collectors.toSet());
+        Map<Long, Long> viewsMap = getViewsFromStats(eventIds);
+        result.forEach(compilationDto -> addViews(compilationDto, viewsMap));
         log.info("Подборки найдена");
         return result;
     }
 
-    private CompilationDto addConfirmedRequestsAndViews(CompilationDto compilationDto) {
+    private CompilationDto addViews(CompilationDto compilationDto) {
+        if (compilationDto.getEvents() == null || compilationDto.getEvents().isEmpty()) {
+            return compilationDto;
+        }
+        Set<Long> eventIds = compilationDto.getEvents().stream()
+                .map(EventShortDto::getId)
+                .collect(Collectors.toSet());
+        return addViews(compilationDto, getViewsFromStats(eventIds));
+    }
+
+    private CompilationDto addViews(CompilationDto compilationDto, Map<Long, Long> viewsMap) {
         if (compilationDto.getEvents() != null && !compilationDto.getEvents().isEmpty()) {
-            List<String> uris = compilationDto.getEvents().stream()
-                    .map(event -> "/events/" + event.getId())
-                    .collect(Collectors.toList());
-            Map<String, Long> viewsMap = getViewsFromStats(uris);
             for (EventShortDto eventDto : compilationDto.getEvents()) {
-                String eventUri = "/events/" + eventDto.getId();
-                eventDto.setViews(viewsMap.getOrDefault(eventUri, 0L));
-                Long confirmedRequests = requestRepository.countByEventIdAndStatus(eventDto.getId(),
-                        RequestStatus.CONFIRMED);
-                eventDto.setConfirmedRequests(confirmedRequests);
+                eventDto.setViews(viewsMap.getOrDefault(eventDto.getId(), 0L));
             }
         }
         return compilationDto;
     }
 
-    private Map<String, Long> getViewsFromStats(List<String> uris) {
+    private Map<Long, Long> getViewsFromStats(Collection<Long> eventIds) {
         try {
             LocalDateTime end = LocalDateTime.now();
-            LocalDateTime start = end.minusYears(1);
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-            List<ViewStatsDto> stats = statsClient.getStats(
-                    start.format(formatter),
-                    end.format(formatter),
-                    uris,
-                    false
-            );
-            Map<String, Long> viewsMap = new HashMap<>();
-            for (ViewStatsDto stat : stats) {
-                viewsMap.put(stat.getUri(), stat.getHits());
-            }
-            return viewsMap;
+            return statsClient.getViews(eventIds, end.minusYears(1), end, false);
         } catch (Exception e) {
             log.warn("Ошибка при получении данных из сервиса статистики: {}", e.getMessage());
             return new HashMap<>();
@@ -102,7 +99,7 @@ public class CompilationServiceImpl implements CompilationService {
                 .orElseThrow(() -> new NotFoundException("Compilation", "Id", compId));
         CompilationDto result = compilationMapper.toDto(compilation);
         log.info("Подборка найдена");
-        return addConfirmedRequestsAndViews(result);
+        return addViews(result);
     }
 
     private Set<Event> loadEvents(List<Long> eventIds) {
@@ -127,7 +124,7 @@ public class CompilationServiceImpl implements CompilationService {
         Compilation savedCompilation = compilationRepository.save(compilation);
         CompilationDto result = compilationMapper.toDto(savedCompilation);
         log.info("Подборка успешно создана");
-        return addConfirmedRequestsAndViews(result);
+        return addViews(result);
     }
 
     @Override
@@ -156,7 +153,7 @@ public class CompilationServiceImpl implements CompilationService {
         Compilation updatedCompilation = compilationRepository.save(compilation);
         CompilationDto result = compilationMapper.toDto(updatedCompilation);
         log.info("Подборка успешно обновлена");
-        return addConfirmedRequestsAndViews(result);
+        return addViews(result);
     }
 
     @Override
@@ -0,0 +1,76 @@
+package ru.practicum.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.config.ConfirmedRequestsRepairProperties;
+import ru.practicum.repository.EventRepository;
+
+import java.util.List;
+
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "main-service.confirmed-requests.repair", name = "enabled", matchIfMissing = true)
+public class ConfirmedRequestsReconciler {
+
+    private final EventRepository eventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ConfirmedRequestsRepairProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ConfirmedRequestsReconciler(EventRepository eventRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       ConfirmedRequestsRepairProperties properties,
+                                       ApplicationEventPublisher eventPublisher) {
+        this.eventRepository = eventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // READ COMMITTED достаточно: каждая смена статуса заявки меняет confirmed_requests события в той же
+        // транзакции, поэтому удерживает строку events до коммита. Пакет сначала блокирует свои строки events
+        // (ожидая такие транзакции), а пересчёт идёт отдельным оператором со свежим снимком, который видит
+        // их заявки; новые подтверждения ждут снятия блокировки и применяются поверх пересчёта.
+        // REPEATABLE READ здесь только добавил бы ошибки сериализации на строках, изменённых до блокировки.
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Scheduled(fixedDelayString = "${main-service.confirmed-requests.repair.interval:PT15M}",
+            initialDelayString = "${main-service.confirmed-requests.repair.interval:PT15M}")
+    public void reconcile() {
+        int repaired = 0;
+        Batch batch = reconcileBatch(0);
+        while (batch != null) {
+            repaired += batch.repaired();
+            batch = reconcileBatch(batch.lastId());
+        }
+        if (repaired > 0) {
+            log.warn("Счётчик подтверждённых заявок исправлен для {} событий", repaired);
+        } else {
+            log.debug("Счётчики подтверждённых заявок согласованы");
+        }
+    }
+
+    private Batch reconcileBatch(long afterId) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = eventRepository.lockNextIds(afterId, properties.getBatchSize());
+            if (ids.isEmpty()) {
+                return null;
+            }
+            long firstId = ids.get(0);
+            long lastId = ids.get(ids.size() - 1);
+            int repaired = eventRepository.reconcileConfirmedRequests(firstId, lastId);
+            if (repaired > 0) {
+                eventPublisher.publishEvent(new EventSearchInvalidation(true));
+            }
+            return new Batch(lastId, repaired);
+        });
+    }
+
+    private record Batch(long lastId, int repaired) {
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.config.SearchCacheProperties;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@Slf4j
+public class EventSearchCache {
+
+    private final SearchCacheProperties properties;
+    private final Cache<SearchKey, Entry> cache;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong availabilityGeneration = new AtomicLong();
+    private final Timer hitAge;
+    private final Counter stalePuts;
+    private final Counter invalidationsAll;
+    private final Counter invalidationsAvailability;
+
+    public EventSearchCache(SearchCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfter())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "events.search");
+        this.hitAge = Timer.builder("events.search.cache.hit_age")
+                .description("Возраст записи кэша поиска событий в момент попадания")
+                .register(meterRegistry);
+        this.stalePuts = meterRegistry.counter("events.search.cache.stale_puts");
+        this.invalidationsAll = meterRegistry.counter("events.search.cache.invalidations", "scope", "all");
+        this.invalidationsAvailability = meterRegistry.counter("events.search.cache.invalidations",
+                "scope", "availability");
+    }
+
+    public Entry get(SearchKey key) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null) {
+            hitAge.record(System.nanoTime() - entry.createdAt(), TimeUnit.NANOSECONDS);
+        }
+        return entry;
+    }
+
+    public Stamp stamp() {
+        return new Stamp(generation.get(), availabilityGeneration.get());
+    }
+
+    public void put(SearchKey key, Stamp stamp, List<Long> eventIds, String nextCursor) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        cache.put(key, new Entry(List.copyOf(eventIds), nextCursor, System.nanoTime()));
+        if (generation.get() != stamp.generation()
+                || (key.onlyAvailable() && availabilityGeneration.get() != stamp.availabilityGeneration())) {
+            cache.invalidate(key);
+            stalePuts.increment();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvalidation(EventSearchInvalidation invalidation) {
+        if (invalidation.availabilityOnly()) {
+            availabilityGeneration.incrementAndGet();
+            cache.asMap().keySet().removeIf(SearchKey::onlyAvailable);
+            invalidationsAvailability.increment();
+        } else {
+            generation.incrementAndGet();
+            cache.invalidateAll();
+            invalidationsAll.increment();
+        }
+        log.debug("Кэш поиска событий сброшен: availabilityOnly={}", invalidation.availabilityOnly());
+    }
+
+    public record SearchKey(String text,
+                            List<Long> categories,
+                            Boolean paid,
+                            LocalDateTime rangeStart,
+                            LocalDateTime rangeEnd,
+                            boolean onlyAvailable,
+                            String sort,
+                            String cursor,
+                            int from,
+                            int size) {
+
+        public static SearchKey of(String text,
+                                   List<Long> categories,
+                                   Boolean paid,
+                                   LocalDateTime rangeStart,
+                                   LocalDateTime rangeEnd,
+                                   Boolean onlyAvailable,
+                                   String sort,
+                                   String cursor,
+                                   int from,
+                                   int size) {
+            return new SearchKey(
+                    text == null || text.isBlank() ? null : text.strip().toLowerCase(Locale.ROOT),
+                    categories == null || categories.isEmpty() ? null : categories.stream().distinct().sorted().toList(),
+                    paid,
+                    rangeStart,
+                    rangeEnd,
+                    Boolean.TRUE.equals(onlyAvailable),
+                    "VIEWS".equals(sort) || "RELEVANCE".equals(sort) ? sort : "EVENT_DATE",
+                    cursor == null || cursor.isBlank() ? null : cursor,
+                    from,
+                    size);
+        }
+    }
+
+    public record Entry(List<Long> eventIds, String nextCursor, long createdAt) {
+    }
+
+    public record Stamp(long generation, long availabilityGeneration) {
+    }
+}
@@ -0,0 +1,4 @@
+package ru.practicum.service;
+
+public record EventSearchInvalidation(boolean availabilityOnly) {
+}
@@ -19,27 +19,29 @@ public interface EventService {
     EventFullDto updateUserEvent(Long userId, Long eventId, UpdateEventUserRequestDto dto);
 
     //admin
-    List<EventFullDto> searchAdmin(List<Long> users,
-                                   List<EventState> states,
-                                   List<Long> categories,
-                                   LocalDateTime rangeStart,
-                                   LocalDateTime rangeEnd,
-                                   int from,
-                                   int size);
+    EventPage<EventFullDto> searchAdmin(List<Long> users,
+                                        List<EventState> states,
+                                        List<Long> categories,
+                                        LocalDateTime rangeStart,
+                                        LocalDateTime rangeEnd,
+                                        String cursor,
+                                        int from,
+                                        int size);
 
     EventFullDto updateAdminEvent(Long eventId, UpdateEventAdminRequestDto dto);
 
     //public
-    List<EventShortDto> searchPublic(String text,
-                                     List<Long> categories,
-                                     Boolean paid,
-                                     LocalDateTime rangeStart,
-                                     LocalDateTime rangeEnd,
-                                     Boolean onlyAvailable,
-                                     String sort,
-                                     int from,
-                                     int size,
-                                     HttpServletRequest request);
+    EventPage<EventShortDto> searchPublic(String text,
+                                          List<Long> categories,
+                                          Boolean paid,
+                                          LocalDateTime rangeStart,
+                                          LocalDateTime rangeEnd,
+                                          Boolean onlyAvailable,
+                                          String sort,
+                                          String cursor,
+                                          int from,
+                                          int size,
+                                          HttpServletRequest request);
 
     EventFullDto getPublicEvent(Long eventId, HttpServletRequest request);
 }
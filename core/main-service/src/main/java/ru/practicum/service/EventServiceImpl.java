@@ -3,7 +3,7 @@ package ru.practicum.service;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.EndpointHitDto;
@@ -16,12 +16,12 @@ import ru.practicum.mapper.LocationMapper;
 import ru.practicum.model.*;
 import ru.practicum.repository.CategoryRepository;
 import ru.practicum.repository.EventRepository;
-import ru.practicum.repository.RequestRepository;
 import ru.practicum.repository.UserRepository;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,14 +33,14 @@ public class EventServiceImpl implements EventService {
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
-    private final RequestRepository requestRepository;
 
     private final EventMapper eventMapper;
     private final LocationMapper locationMapper;
 
     private final StatsClient statsClient;
-
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final EventViewCounter viewCounter;
+    private final EventSearchCache searchCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     //PRIVATE
     @Override
@@ -53,17 +53,14 @@ public class EventServiceImpl implements EventService {
 
         Event event = eventMapper.toEvent(dto, initiator, category, location);
 
-        return buildFullDto(eventRepository.save(event));
+        return eventMapper.toFullDto(eventRepository.save(event));
     }
 
     @Override
     public List<EventShortDto> getUserEvents(Long userId, int from, int size) {
         getUserOrThrow(userId);
 
-        return eventRepository.findAllByInitiatorId(userId, PageRequest.of(from / size, size))
-                .stream()
-                .map(this::buildShortDto)
-                .collect(Collectors.toList());
+        return eventRepository.findShortEventsByInitiator(userId, from / size * size, size);
     }
 
     @Override
@@ -72,7 +69,7 @@ public class EventServiceImpl implements EventService {
         Event event = eventRepository.findByIdAndInitiatorId(eventId, userId)
                 .orElseThrow(() -> new NotFoundException("Event", "id", eventId));
 
-        return buildFullDto(event);
+        return eventMapper.toFullDto(event);
     }
 
     @Override
@@ -109,24 +106,30 @@ public class EventServiceImpl implements EventService {
         }
 
         Event saved = eventRepository.save(event);
-        return buildFullDto(saved);
+        return eventMapper.toFullDto(saved);
     }
 
     //ADMIN
     @Override
-    public List<EventFullDto> searchAdmin(List<Long> users,
-                                          List<EventState> states,
-                                          List<Long> categories,
-                                          LocalDateTime rangeStart,
-                                          LocalDateTime rangeEnd,
-                                          int from,
-                                          int size) {
+    public EventPage<EventFullDto> searchAdmin(List<Long> users,
+                                               List<EventState> states,
+                                               List<Long> categories,
+                                               LocalDateTime rangeStart,
+                                               LocalDateTime rangeEnd,
+                                               String cursor,
+                                               int from,
+                                               int size) {
         checkRangeTime(rangeStart, rangeEnd);
 
-        return eventRepository.findEventsByAdminFilters(users, states, categories, rangeStart, rangeEnd, from, size)
-                .stream()
-                .map(this::buildFullDto)
+        EventCursor.Order order = EventCursor.Order.EVENT_DATE_DESC;
+        List<Event> events = eventRepository.findEventsByAdminFilters(users, states, categories, rangeStart,
+                rangeEnd, EventCursor.decode(cursor, order), from, size);
+
+        List<EventFullDto> result = events.stream()
+                .map(eventMapper::toFullDto)
                 .collect(Collectors.toList());
+        return new EventPage<>(result, nextCursor(events, order, size,
+                event -> EventCursor.after(order, event.getEventDate(), event.getViews(), event.getId())));
     }
 
     @Override
@@ -163,35 +166,56 @@ public class EventServiceImpl implements EventService {
             }
         }
 
+        if (event.getState() == EventState.PUBLISHED) {
+            eventPublisher.publishEvent(new EventSearchInvalidation(false));
+        }
+
         Event saved = eventRepository.save(event);
-        return buildFullDto(saved);
+        return eventMapper.toFullDto(saved);
     }
 
     //PUBLIC
     @Override
-    public List<EventShortDto> searchPublic(String text,
-                                            List<Long> categories,
-                                            Boolean paid,
-                                            LocalDateTime rangeStart,
-                                            LocalDateTime rangeEnd,
-                                            Boolean onlyAvailable,
-                                            String sort,
-                                            int from,
-                                            int size,
-                                            HttpServletRequest request) {
+    public EventPage<EventShortDto> searchPublic(String text,
+                                                 List<Long> categories,
+                                                 Boolean paid,
+                                                 LocalDateTime rangeStart,
+                                                 LocalDateTime rangeEnd,
+                                                 Boolean onlyAvailable,
+                                                 String sort,
+                                                 String cursor,
+                                                 int from,
+                                                 int size,
+                                                 HttpServletRequest request) {
         checkRangeTime(rangeStart, rangeEnd);
 
-        List<Event> events = eventRepository.findPublishedEvents(
-                text, categories, paid, rangeStart, rangeEnd, onlyAvailable, sort, from, size);
+        EventSearchCache.SearchKey key = EventSearchCache.SearchKey.of(
+                text, categories, paid, rangeStart, rangeEnd, onlyAvailable, sort, cursor, from, size);
+        EventSearchCache.Entry cached = searchCache.get(key);
+
+        List<EventShortDto> events;
+        String nextCursor;
+        if (cached != null) {
+            events = eventRepository.findShortEventsByIds(cached.eventIds());
+            nextCursor = cached.nextCursor();
+        } else {
+            EventSearchCache.Stamp stamp = searchCache.stamp();
+            EventCursor.Order order = EventCursor.Order.forPublicSort(sort);
+            events = eventRepository.findPublishedEvents(key.text(), key.categories(), paid, rangeStart, rangeEnd,
+                    onlyAvailable, sort, EventCursor.decode(cursor, order), from, size);
+            nextCursor = nextCursor(events, order, size,
+                    event -> EventCursor.after(order, event.getEventDate(), event.getViews(), event.getId()));
+            searchCache.put(key, stamp, events.stream().map(EventShortDto::getId).toList(), nextCursor);
+        }
 
         saveHit(request);
 
-        if (events.isEmpty()) return List.of();
+        if (events.isEmpty()) return new EventPage<>(List.of(), null);
 
-        return events.stream()
-                .peek(event -> event.setViews(getViewsForEvent(event.getId())))
-                .map(this::buildShortDto)
-                .collect(Collectors.toList());
+        Map<Long, Long> views = getViews(events.stream().map(EventShortDto::getId).toList());
+        events.forEach(event -> event.setViews(views.getOrDefault(event.getId(), 0L)));
+
+        return new EventPage<>(events, nextCursor);
     }
 
     @Override
@@ -205,25 +229,20 @@ public class EventServiceImpl implements EventService {
 
         saveHit(request);
 
-        event.setViews(event.getViews() + 1);
-        eventRepository.save(event);
+        viewCounter.increment(eventId);
 
-        return eventMapper.toFullDto(event);
-    }
-
-    //helper
-    private EventFullDto buildFullDto(Event event) {
         EventFullDto dto = eventMapper.toFullDto(event);
-        Long confirmed = requestRepository.countByEventIdAndStatus(event.getId(), RequestStatus.CONFIRMED);
-        dto.setConfirmedRequests(confirmed);
+        dto.setViews(event.getViews() + viewCounter.pending(eventId));
         return dto;
     }
 
-    private EventShortDto buildShortDto(Event event) {
-        EventShortDto dto = eventMapper.toShortDto(event);
-        Long confirmed = requestRepository.countByEventIdAndStatus(event.getId(), RequestStatus.CONFIRMED);
-        dto.setConfirmedRequests(confirmed);
-        return dto;
+    //helper
+    private <T> String nextCursor(List<T> events, EventCursor.Order order, int size,
+                                  Function<T, EventCursor> cursorOf) {
+        if (order == null || events.size() < size) {
+            return null;
+        }
+        return cursorOf.apply(events.get(events.size() - 1)).encode();
     }
 
     private User getUserOrThrow(Long userId) {
@@ -257,23 +276,19 @@ public class EventServiceImpl implements EventService {
                     .ip(request.getRemoteAddr())
                     .timestamp(LocalDateTime.now())
                     .build();
-            statsClient.saveHit(hit);
+            statsClient.publishHit(hit);
         } catch (Exception e) {
             log.warn("Не удалось записать хит статистики: {}", e.getMessage());
         }
     }
 
-    private Long getViewsForEvent(Long eventId) {
-        String start = LocalDateTime.now().minusYears(10).format(FORMATTER);
-        String end = LocalDateTime.now().format(FORMATTER);
-        String uri = "/events/" + eventId;
-
+    private Map<Long, Long> getViews(List<Long> eventIds) {
+        LocalDateTime end = LocalDateTime.now();
         try {
-            var listStats = statsClient.getStats(start, end, List.of(uri), true);
-            return listStats.isEmpty() ? 0L : listStats.get(0).getHits();
+            return statsClient.getViews(eventIds, end.minusYears(10), end, true);
         } catch (Exception e) {
             log.warn("Не удалось получить хит статистики: {}", e.getMessage());
-            return 0L;
+            return Map.of();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package ru.practicum.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.config.ViewCounterProperties;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Slf4j
+public class EventViewCounter {
+
+    private static final String INCREMENT_VIEWS = "UPDATE events SET views = views + ? WHERE id = ?";
+
+    private final ConcurrentHashMap<Long, Long> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> inFlight = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ViewCounterProperties properties;
+
+    public EventViewCounter(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            ViewCounterProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    public void increment(Long eventId) {
+        pending.merge(eventId, 1L, Long::sum);
+    }
+
+    public long pending(Long eventId) {
+        return pending.getOrDefault(eventId, 0L) + inFlight.getOrDefault(eventId, 0L);
+    }
+
+    @Scheduled(fixedDelayString = "${main-service.views.flush-interval:PT5S}",
+            initialDelayString = "${main-service.views.flush-interval:PT5S}")
+    public synchronized void flush() {
+        // computeIfPresent() забирает накопленное значение атомарно с merge() в increment(), поэтому
+        // выгруженные события не остаются в карте, а просмотр, пришедший во время выгрузки, попадает в новую
+        // запись. Забранное лежит в inFlight до коммита: иначе чтение в этот момент увидело бы старое
+        // events.views без незакоммиченной добавки и число просмотров на время уменьшилось бы
+        for (Long eventId : pending.keySet()) {
+            pending.computeIfPresent(eventId, (id, delta) -> {
+                inFlight.merge(id, delta, Long::sum);
+                return null;
+            });
+        }
+        List<ViewDelta> deltas = new ArrayList<>();
+        inFlight.forEach((eventId, delta) -> {
+            if (delta > 0) {
+                deltas.add(new ViewDelta(eventId, delta));
+            }
+        });
+        if (deltas.isEmpty()) {
+            inFlight.clear();
+            return;
+        }
+        deltas.sort(Comparator.comparing(ViewDelta::eventId));
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INCREMENT_VIEWS, deltas, properties.getBatchSize(), (ps, delta) -> {
+                        ps.setLong(1, delta.views());
+                        ps.setLong(2, delta.eventId());
+                    }));
+            log.debug("Сохранены просмотры для {} событий", deltas.size());
+        } catch (RuntimeException e) {
+            log.error("Не удалось сохранить просмотры для {} событий, повтор при следующей выгрузке",
+                    deltas.size(), e);
+            deltas.forEach(delta -> pending.merge(delta.eventId(), delta.views(), Long::sum));
+        } finally {
+            inFlight.clear();
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        flush();
+    }
+
+    private record ViewDelta(Long eventId, long views) {
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.dto.event.EventRequestStatusUpdateRequestDto;
@@ -28,6 +29,7 @@ public class RequestServiceImpl implements RequestService {
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
     private final RequestMapper requestMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public List<ParticipationRequestDto> getUserRequests(Long userId) {
@@ -59,14 +61,19 @@ public class RequestServiceImpl implements RequestService {
             throw new ConflictException("Запрос уже существует");
         }
 
-        if (event.getParticipantLimit() != 0 &&
-                requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED)
-                        >= event.getParticipantLimit()) {
+        if (isLimitReached(event)) {
             throw new ConflictException("Достигнут лимит участников");
         }
 
         RequestStatus status = RequestStatus.PENDING;
         if (!event.getRequestModeration() || event.getParticipantLimit() == 0) {
+            if (eventRepository.incrementConfirmedRequests(eventId, 1) == 0) {
+                throw new ConflictException("Достигнут лимит участников");
+            }
+            if (event.getParticipantLimit() != 0
+                    && eventRepository.findConfirmedRequests(eventId) == event.getParticipantLimit()) {
+                eventPublisher.publishEvent(new EventSearchInvalidation(true));
+            }
             status = RequestStatus.CONFIRMED;
         }
 
@@ -90,6 +97,15 @@ public class RequestServiceImpl implements RequestService {
             throw new ConflictException("Пользователь может отменять только свои запросы");
         }
 
+        if (request.getStatus() == RequestStatus.CONFIRMED) {
+            Event event = request.getEvent();
+            if (eventRepository.decrementConfirmedRequests(event.getId(), 1) > 0
+                    && event.getParticipantLimit() != 0
+                    && eventRepository.findConfirmedRequests(event.getId()) == event.getParticipantLimit() - 1) {
+                eventPublisher.publishEvent(new EventSearchInvalidation(true));
+            }
+        }
+
         request.setStatus(RequestStatus.CANCELED);
         return requestMapper.toDto(requestRepository.save(request));
     }
@@ -112,22 +128,19 @@ public class RequestServiceImpl implements RequestService {
     @Transactional
     public EventRequestStatusUpdateResultDto changeRequestStatus(Long userId, Long eventId,
                                                                  EventRequestStatusUpdateRequestDto updateRequestDto) {
-        Event event = eventRepository.findById(eventId)
+        Event event = eventRepository.findByIdForUpdate(eventId)
                 .orElseThrow(() -> new NotFoundException("Request", "EventId", eventId));
 
         if (!event.getInitiator().getId().equals(userId)) {
             throw new ConflictException("Только создатель может менять статус запроса");
         }
 
-        if (event.getParticipantLimit() != 0 &&
-                requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED)
-                        >= event.getParticipantLimit()) {
+        if (isLimitReached(event)) {
             throw new ConflictException("Достигнут лимит участников");
         }
 
-        List<Request> requests = requestRepository.findAllById(updateRequestDto.getRequestIds());
-        List<ParticipationRequestDto> confirmedRequests = new ArrayList<>();
-        List<ParticipationRequestDto> rejectedRequests = new ArrayList<>();
+        List<Request> requests = requestRepository.findAllByIdInOrderByCreatedAscIdAsc(
+                updateRequestDto.getRequestIds());
 
         for (Request req : requests) {
             if (!req.getEvent().getId().equals(eventId)) {
@@ -137,25 +150,54 @@ public class RequestServiceImpl implements RequestService {
             if (req.getStatus() != RequestStatus.PENDING) {
                 throw new ConflictException("Можно менять только статус запросов, находящихся в ожидании");
             }
+        }
+
+        int toConfirm = 0;
+        if (updateRequestDto.getStatus() == RequestStatus.CONFIRMED) {
+            toConfirm = event.getParticipantLimit() == 0
+                    ? requests.size()
+                    : Math.min(requests.size(), event.getParticipantLimit() - event.getConfirmedRequests());
+        }
+
+        List<Request> confirmed = requests.subList(0, toConfirm);
+        List<Request> rejected = requests.subList(toConfirm, requests.size());
 
-            if (updateRequestDto.getStatus() == RequestStatus.CONFIRMED) {
-                if (event.getParticipantLimit() != 0 &&
-                        requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED)
-                                >= event.getParticipantLimit()) {
-                    req.setStatus(RequestStatus.REJECTED);
-                    rejectedRequests.add(requestMapper.toDto(req));
-                } else {
-                    req.setStatus(RequestStatus.CONFIRMED);
-                    confirmedRequests.add(requestMapper.toDto(req));
-                }
-            } else if (updateRequestDto.getStatus() == RequestStatus.REJECTED) {
-                req.setStatus(RequestStatus.REJECTED);
-                rejectedRequests.add(requestMapper.toDto(req));
+        updatePendingStatus(confirmed, RequestStatus.CONFIRMED);
+        updatePendingStatus(rejected, RequestStatus.REJECTED);
+        if (!confirmed.isEmpty()) {
+            if (eventRepository.incrementConfirmedRequests(eventId, confirmed.size()) == 0) {
+                throw new ConflictException("Достигнут лимит участников");
+            }
+            if (event.getConfirmedRequests() + confirmed.size() == event.getParticipantLimit()) {
+                eventPublisher.publishEvent(new EventSearchInvalidation(true));
             }
         }
 
-        requestRepository.saveAll(requests);
+        return new EventRequestStatusUpdateResultDto(toDtos(confirmed, RequestStatus.CONFIRMED),
+                toDtos(rejected, RequestStatus.REJECTED));
+    }
+
+    private void updatePendingStatus(List<Request> requests, RequestStatus status) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        List<Long> ids = requests.stream().map(Request::getId).toList();
+        if (requestRepository.updateStatus(ids, RequestStatus.PENDING, status) != ids.size()) {
+            throw new ConflictException("Можно менять только статус запросов, находящихся в ожидании");
+        }
+    }
+
+    private List<ParticipationRequestDto> toDtos(List<Request> requests, RequestStatus status) {
+        List<ParticipationRequestDto> result = new ArrayList<>(requests.size());
+        for (Request request : requests) {
+            ParticipationRequestDto dto = requestMapper.toDto(request);
+            dto.setStatus(status);
+            result.add(dto);
+        }
+        return result;
+    }
 
-        return new EventRequestStatusUpdateResultDto(confirmedRequests, rejectedRequests);
+    private boolean isLimitReached(Event event) {
+        return event.getParticipantLimit() != 0 && event.getConfirmedRequests() >= event.getParticipantLimit();
     }
 }
\ No newline at end of file
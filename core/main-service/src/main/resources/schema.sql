@@ -36,6 +36,16 @@ CREATE TABLE IF NOT EXISTS events (
     views BIGINT NOT NULL
 );
 
+CREATE INDEX IF NOT EXISTS idx_events_date_id ON events (event_date, id);
+
+CREATE INDEX IF NOT EXISTS idx_events_views_id ON events (views, id);
+
+CREATE INDEX IF NOT EXISTS idx_events_search ON events USING GIN (
+    (setweight(to_tsvector('russian', coalesce(title, '')), 'A')
+    || setweight(to_tsvector('russian', coalesce(annotation, '')), 'B')
+    || setweight(to_tsvector('russian', coalesce(description, '')), 'C'))
+);
+
 CREATE TABLE IF NOT EXISTS requests (
     id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
     created TIMESTAMP   NOT NULL,
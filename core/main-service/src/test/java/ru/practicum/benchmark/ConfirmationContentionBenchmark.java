@@ -0,0 +1,173 @@
+package ru.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Конкурентное подтверждение заявок на одно событие: условный UPDATE счётчика confirmed_requests
+ * против прежнего чтения-изменения-записи (с блокировкой строки и без неё). После каждой итерации
+ * печатается число подтверждений и значение счётчика — у варианта без блокировки они расходятся.
+ * По умолчанию работает на H2 в режиме PostgreSQL; для замеров на PostgreSQL передайте
+ * {@code -Dbench.jdbc.url}, {@code -Dbench.jdbc.user} и {@code -Dbench.jdbc.password}.
+ * Запуск: {@code mvn -pl core/main-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args=ConfirmationContentionBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class ConfirmationContentionBenchmark {
+
+    private static final String URL = System.getProperty("bench.jdbc.url",
+            "jdbc:h2:mem:confirm_bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000");
+    private static final String USER = System.getProperty("bench.jdbc.user", "sa");
+    private static final String PASSWORD = System.getProperty("bench.jdbc.password", "");
+
+    private static final long EVENT_ID = 1;
+
+    private static final String GUARDED_INCREMENT = """
+            UPDATE bench_events
+            SET confirmed_requests = confirmed_requests + 1
+            WHERE id = ? AND (participant_limit = 0 OR confirmed_requests + 1 <= participant_limit)
+            """;
+    private static final String SELECT_COUNTER =
+            "SELECT confirmed_requests, participant_limit FROM bench_events WHERE id = ?";
+    private static final String SELECT_COUNTER_FOR_UPDATE = SELECT_COUNTER + " FOR UPDATE";
+    private static final String WRITE_COUNTER = "UPDATE bench_events SET confirmed_requests = ? WHERE id = ?";
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        private final AtomicLong confirmations = new AtomicLong();
+
+        @Setup(Level.Trial)
+        public void createTable() throws SQLException {
+            try (Connection connection = open(); Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS bench_events");
+                statement.execute("CREATE TABLE bench_events (id BIGINT PRIMARY KEY, "
+                        + "participant_limit INT NOT NULL, confirmed_requests INT NOT NULL)");
+                statement.execute("INSERT INTO bench_events VALUES (" + EVENT_ID + ", 0, 0)");
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void resetCounter() throws SQLException {
+            try (Connection connection = open(); Statement statement = connection.createStatement()) {
+                statement.execute("UPDATE bench_events SET confirmed_requests = 0");
+            }
+            confirmations.set(0);
+        }
+
+        @TearDown(Level.Iteration)
+        public void reportLostUpdates() throws SQLException {
+            try (Connection connection = open();
+                 PreparedStatement select = connection.prepareStatement(SELECT_COUNTER)) {
+                select.setLong(1, EVENT_ID);
+                try (ResultSet rs = select.executeQuery()) {
+                    rs.next();
+                    long counter = rs.getLong(1);
+                    System.out.printf("%nподтверждений %d, confirmed_requests %d, потеряно %d%n",
+                            confirmations.get(), counter, confirmations.get() - counter);
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void dropTable() throws SQLException {
+            try (Connection connection = open(); Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE bench_events");
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        private Connection connection;
+        private PreparedStatement guardedIncrement;
+        private PreparedStatement selectCounter;
+        private PreparedStatement selectCounterForUpdate;
+        private PreparedStatement writeCounter;
+
+        @Setup(Level.Trial)
+        public void connect() throws SQLException {
+            connection = open();
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+            guardedIncrement = connection.prepareStatement(GUARDED_INCREMENT);
+            selectCounter = connection.prepareStatement(SELECT_COUNTER);
+            selectCounterForUpdate = connection.prepareStatement(SELECT_COUNTER_FOR_UPDATE);
+            writeCounter = connection.prepareStatement(WRITE_COUNTER);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public int guardedUpdate(Database database, Session session) throws SQLException {
+        session.guardedIncrement.setLong(1, EVENT_ID);
+        int updated = session.guardedIncrement.executeUpdate();
+        session.connection.commit();
+        database.confirmations.addAndGet(updated);
+        return updated;
+    }
+
+    @Benchmark
+    public int lockedReadModifyWrite(Database database, Session session) throws SQLException {
+        return readModifyWrite(database, session, session.selectCounterForUpdate);
+    }
+
+    @Benchmark
+    public int unlockedReadModifyWrite(Database database, Session session) throws SQLException {
+        return readModifyWrite(database, session, session.selectCounter);
+    }
+
+    private int readModifyWrite(Database database, Session session, PreparedStatement select) throws SQLException {
+        int confirmed;
+        int limit;
+        select.setLong(1, EVENT_ID);
+        try (ResultSet rs = select.executeQuery()) {
+            rs.next();
+            confirmed = rs.getInt(1);
+            limit = rs.getInt(2);
+        }
+        int updated = 0;
+        if (limit == 0 || confirmed < limit) {
+            session.writeCounter.setInt(1, confirmed + 1);
+            session.writeCounter.setLong(2, EVENT_ID);
+            updated = session.writeCounter.executeUpdate();
+        }
+        session.connection.commit();
+        database.confirmations.addAndGet(updated);
+        return updated;
+    }
+
+    private static Connection open() throws SQLException {
+        return DriverManager.getConnection(URL, USER, PASSWORD);
+    }
+}
@@ -0,0 +1,176 @@
+package ru.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Текстовый фильтр публичного поиска событий на PostgreSQL: прежний LOWER(...) LIKE '%x%' по аннотации
+ * и описанию против полнотекстового поиска по тому же выражению tsvector, на котором построен индекс
+ * idx_events_search, с сортировкой по дате события и по релевантности. Таблица заполняется синтетическими
+ * событиями; редкое слово встречается в каждом тысячном событии, частое - почти в каждом.
+ * База по умолчанию - из docker-compose, переопределяется через -Dbench.jdbc.url, -Dbench.jdbc.user
+ * и -Dbench.jdbc.password.
+ * Запуск: {@code mvn -pl core/main-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args=FullTextSearchBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FullTextSearchBenchmark {
+
+    private static final String RARE_WORD = "фестиваль";
+
+    private static final String SEARCH_VECTOR = """
+            (setweight(to_tsvector('russian', coalesce(title, '')), 'A')
+            || setweight(to_tsvector('russian', coalesce(annotation, '')), 'B')
+            || setweight(to_tsvector('russian', coalesce(description, '')), 'C'))""";
+
+    private static final String SEED = """
+            INSERT INTO bench_events (title, annotation, description, state, event_date)
+            SELECT 'Событие ' || g,
+                   (SELECT string_agg(w[1 + floor(random() * array_length(w, 1))::int], ' ')
+                    FROM generate_series(1, 30 + g * 0)),
+                   (SELECT string_agg(w[1 + floor(random() * array_length(w, 1))::int], ' ')
+                    FROM generate_series(1, ? + g * 0))
+                   || CASE WHEN g % 1000 = 0 THEN ' ' || ? ELSE '' END,
+                   CASE WHEN g % 10 = 0 THEN 'PENDING' ELSE 'PUBLISHED' END,
+                   now() + (g % 365) * interval '1 day'
+            FROM generate_series(1, ?) g,
+                 (SELECT string_to_array('концерт выставка лекция мастер-класс спектакль встреча прогулка '
+                     || 'экскурсия семинар турнир музыка театр город парк музей кино книга вечер '
+                     || 'друзья дети семья искусство история наука спорт игра танцы', ' ') AS w) words
+            """;
+
+    private static final String LIKE = """
+            SELECT id FROM bench_events
+            WHERE state = 'PUBLISHED' AND event_date >= now()
+            AND (lower(annotation) LIKE ? OR lower(description) LIKE ?)
+            ORDER BY event_date, id
+            LIMIT 10
+            """;
+
+    private static final String FULL_TEXT = """
+            SELECT id FROM bench_events
+            WHERE state = 'PUBLISHED' AND event_date >= now()
+            AND %s @@ websearch_to_tsquery('russian', ?)
+            ORDER BY event_date, id
+            LIMIT 10
+            """.formatted(SEARCH_VECTOR);
+
+    private static final String FULL_TEXT_BY_RELEVANCE = """
+            SELECT id FROM bench_events
+            WHERE state = 'PUBLISHED' AND event_date >= now()
+            AND %1$s @@ websearch_to_tsquery('russian', ?)
+            ORDER BY ts_rank(%1$s, websearch_to_tsquery('russian', ?)) DESC, id
+            LIMIT 10
+            """.formatted(SEARCH_VECTOR);
+
+    @Param({"1000000"})
+    private int events;
+
+    @Param({"150"})
+    private int descriptionWords;
+
+    @Param({RARE_WORD, "концерт"})
+    private String word;
+
+    private Connection connection;
+    private PreparedStatement like;
+    private PreparedStatement fullText;
+    private PreparedStatement fullTextByRelevance;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/ewm_main_db"),
+                System.getProperty("bench.jdbc.user", "ewm_user"),
+                System.getProperty("bench.jdbc.password", "ewm_password"));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_events");
+            statement.execute("""
+                    CREATE TABLE bench_events (
+                        id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                        title VARCHAR(120) NOT NULL,
+                        annotation VARCHAR(2000) NOT NULL,
+                        description VARCHAR(7000) NOT NULL,
+                        state VARCHAR(22) NOT NULL,
+                        event_date TIMESTAMP WITHOUT TIME ZONE NOT NULL
+                    )
+                    """);
+        }
+        try (PreparedStatement seed = connection.prepareStatement(SEED)) {
+            seed.setInt(1, descriptionWords);
+            seed.setString(2, RARE_WORD);
+            seed.setInt(3, events);
+            seed.executeUpdate();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX ON bench_events (event_date, id)");
+            statement.execute("CREATE INDEX ON bench_events USING GIN (" + SEARCH_VECTOR + ")");
+            statement.execute("ANALYZE bench_events");
+        }
+        like = connection.prepareStatement(LIKE);
+        like.setString(1, "%" + word + "%");
+        like.setString(2, "%" + word + "%");
+        fullText = connection.prepareStatement(FULL_TEXT);
+        fullText.setString(1, word);
+        fullTextByRelevance = connection.prepareStatement(FULL_TEXT_BY_RELEVANCE);
+        fullTextByRelevance.setString(1, word);
+        fullTextByRelevance.setString(2, word);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE bench_events");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int likeFilter() throws SQLException {
+        return rows(like);
+    }
+
+    @Benchmark
+    public int fullText() throws SQLException {
+        return rows(fullText);
+    }
+
+    @Benchmark
+    public int fullTextByRelevance() throws SQLException {
+        return rows(fullTextByRelevance);
+    }
+
+    private static int rows(PreparedStatement statement) throws SQLException {
+        int rows = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.dto.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventCursorTest {
+
+    @Test
+    void decodesWhatItEncodes() {
+        EventCursor byDate = EventCursor.after(EventCursor.Order.EVENT_DATE_ASC,
+                LocalDateTime.of(2026, 5, 1, 18, 30), 7L, 42L);
+        EventCursor byViews = EventCursor.after(EventCursor.Order.VIEWS_DESC,
+                LocalDateTime.of(2026, 5, 1, 18, 30), 7L, 42L);
+
+        assertThat(EventCursor.decode(byDate.encode(), EventCursor.Order.EVENT_DATE_ASC)).isEqualTo(byDate);
+        assertThat(EventCursor.decode(byViews.encode(), EventCursor.Order.VIEWS_DESC)).isEqualTo(byViews);
+    }
+
+    @Test
+    void rejectsMalformedCursorWhenDecoding() {
+        assertThatThrownBy(() -> EventCursor.decode(token("VIEWS_DESC|2026-05-01T18:30|42"),
+                EventCursor.Order.VIEWS_DESC))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> EventCursor.decode(token("EVENT_DATE_ASC|7|42"), EventCursor.Order.EVENT_DATE_ASC))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> EventCursor.decode("не base64", EventCursor.Order.EVENT_DATE_ASC))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsCursorForAnotherSort() {
+        String token = EventCursor.after(EventCursor.Order.VIEWS_DESC, null, 7L, 42L).encode();
+
+        assertThatThrownBy(() -> EventCursor.decode(token, EventCursor.Order.EVENT_DATE_ASC))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsCursorWithoutSortKey() {
+        assertThatThrownBy(() -> new EventCursor(EventCursor.Order.VIEWS_DESC, LocalDateTime.now(), null, 42L))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
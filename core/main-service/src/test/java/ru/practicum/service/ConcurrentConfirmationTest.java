@@ -0,0 +1,132 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.practicum.dto.event.EventRequestStatusUpdateRequestDto;
+import ru.practicum.exception.ConflictException;
+import ru.practicum.model.Category;
+import ru.practicum.model.Event;
+import ru.practicum.model.Request;
+import ru.practicum.model.RequestStatus;
+import ru.practicum.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrentConfirmationTest extends ServiceIntegrationTest {
+
+    private static final int LIMIT = 5;
+    private static final int THREADS = 8;
+
+    @Autowired
+    private RequestService requestService;
+
+    private User initiator;
+    private Category category;
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        initiator = saveUser("initiator");
+        category = saveCategory("category");
+        users = new ArrayList<>();
+        for (int i = 0; i < THREADS * 2; i++) {
+            users.add(saveUser("user" + i));
+        }
+    }
+
+    @Test
+    void concurrentModeratorsNeverExceedParticipantLimit() throws Exception {
+        Event event = saveEvent(true);
+        List<Long> requestIds = new ArrayList<>();
+        for (User user : users) {
+            requestIds.add(requestRepository.save(Request.builder()
+                    .event(event)
+                    .requester(user)
+                    .status(RequestStatus.PENDING)
+                    .build()).getId());
+        }
+
+        AtomicInteger confirmed = new AtomicInteger();
+        runConcurrently(thread -> {
+            EventRequestStatusUpdateRequestDto update = new EventRequestStatusUpdateRequestDto(
+                    requestIds.subList(thread * 2, thread * 2 + 2), RequestStatus.CONFIRMED);
+            confirmed.addAndGet(requestService.changeRequestStatus(initiator.getId(), event.getId(), update)
+                    .getConfirmedRequests().size());
+        });
+
+        assertLimitHeld(event, confirmed.get());
+    }
+
+    @Test
+    void concurrentParticipantsNeverExceedParticipantLimit() throws Exception {
+        Event event = saveEvent(false);
+
+        AtomicInteger confirmed = new AtomicInteger();
+        runConcurrently(thread -> {
+            if (requestService.addParticipationRequest(users.get(thread).getId(), event.getId()).getStatus()
+                    == RequestStatus.CONFIRMED) {
+                confirmed.incrementAndGet();
+            }
+        });
+
+        assertLimitHeld(event, confirmed.get());
+    }
+
+    private void assertLimitHeld(Event event, int confirmedByCalls) {
+        long confirmedRows = requestRepository.findAll().stream()
+                .filter(request -> request.getStatus() == RequestStatus.CONFIRMED)
+                .count();
+        assertThat(confirmedByCalls).isEqualTo(LIMIT);
+        assertThat(confirmedRows).isEqualTo(LIMIT);
+        assertThat(eventRepository.findConfirmedRequests(event.getId())).isEqualTo(LIMIT);
+    }
+
+    private void runConcurrently(ThreadTask task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                futures.add(executor.submit((Callable<Void>) () -> {
+                    start.await();
+                    try {
+                        task.run(thread);
+                    } catch (ConflictException e) {
+                        // лимит исчерпан другим потоком
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Event saveEvent(boolean requestModeration) {
+        return eventRepository.save(publishedEvent(initiator, category)
+                .participantLimit(LIMIT)
+                .requestModeration(requestModeration)
+                .build());
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+}
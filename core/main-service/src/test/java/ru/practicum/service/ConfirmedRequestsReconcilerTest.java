@@ -0,0 +1,79 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import ru.practicum.model.Category;
+import ru.practicum.model.Event;
+import ru.practicum.model.Request;
+import ru.practicum.model.RequestStatus;
+import ru.practicum.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "main-service.confirmed-requests.repair.enabled=true",
+        "main-service.confirmed-requests.repair.interval=PT1H",
+        "main-service.confirmed-requests.repair.batch-size=2"
+})
+@RecordApplicationEvents
+class ConfirmedRequestsReconcilerTest extends ServiceIntegrationTest {
+
+    @Autowired
+    private ConfirmedRequestsReconciler reconciler;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    private final List<Long> eventIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User initiator = saveUser("initiator");
+        Category category = saveCategory("category");
+        List<User> requesters = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            requesters.add(saveUser("user" + i));
+        }
+        for (int i = 0; i < 5; i++) {
+            Event event = eventRepository.save(publishedEvent(initiator, category)
+                    .confirmedRequests(i == 0 ? 0 : 7)
+                    .build());
+            eventIds.add(event.getId());
+            for (int r = 0; r < i % 4; r++) {
+                requestRepository.save(Request.builder()
+                        .event(event)
+                        .requester(requesters.get(r))
+                        .status(r == 2 ? RequestStatus.PENDING : RequestStatus.CONFIRMED)
+                        .build());
+            }
+        }
+    }
+
+    @Test
+    void recountsConfirmedRequestsInBatches() {
+        reconciler.reconcile();
+
+        assertThat(eventIds).extracting(eventRepository::findConfirmedRequests)
+                .containsExactly(0, 1, 2, 2, 0);
+        assertThat(applicationEvents.stream(EventSearchInvalidation.class))
+                .isNotEmpty()
+                .allMatch(EventSearchInvalidation::availabilityOnly);
+    }
+
+    @Test
+    void skipsInvalidationWhenCountersAreConsistent() {
+        reconciler.reconcile();
+        applicationEvents.clear();
+
+        reconciler.reconcile();
+
+        assertThat(applicationEvents.stream(EventSearchInvalidation.class)).isEmpty();
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practicum.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+import ru.practicum.model.Compilation;
+import ru.practicum.model.Event;
+import ru.practicum.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventQueryCountTest extends ServiceIntegrationTest {
+
+    private static final int EVENTS = 20;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private CompilationService compilationService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User initiator;
+
+    @BeforeEach
+    void setUp() {
+        initiator = saveUser("initiator");
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            User owner = i % 2 == 0 ? initiator : saveUser("user" + i);
+            events.add(eventRepository.save(publishedEvent(owner, saveCategory("category" + i))
+                    .eventDate(LocalDateTime.now().plusDays(i + 1))
+                    .participantLimit(10)
+                    .confirmedRequests(i % 10)
+                    .build()));
+        }
+        for (int i = 0; i < 4; i++) {
+            compilationRepository.save(Compilation.builder()
+                    .title("compilation" + i)
+                    .pinned(i % 2 == 0)
+                    .events(new HashSet<>(events.subList(i * 5, i * 5 + 5)))
+                    .build());
+        }
+    }
+
+    @Test
+    void getUserEventsDoesNotLoadRelationsPerEvent() {
+        long statements = countStatements(EVENTS / 2,
+                () -> eventService.getUserEvents(initiator.getId(), 0, EVENTS).size());
+
+        assertThat(statements).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void searchAdminDoesNotLoadRelationsPerEvent() {
+        long statements = countStatements(EVENTS,
+                () -> eventService.searchAdmin(null, null, null, null, null, null, 0, EVENTS).events().size());
+
+        assertThat(statements).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void searchPublicDoesNotLoadRelationsPerEvent() {
+        long statements = countStatements(EVENTS, () -> eventService.searchPublic(null, null, null, null, null, true,
+                null, null, 0, EVENTS, new MockHttpServletRequest("GET", "/events")).events().size());
+
+        assertThat(statements).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void getCompilationsDoesNotLoadEventsPerCompilation() {
+        long statements = countStatements(4, () -> compilationService.getCompilations(null, 0, 10).stream()
+                .filter(compilation -> compilation.getEvents().size() == 5)
+                .count());
+
+        assertThat(statements).isLessThanOrEqualTo(2);
+    }
+
+    private long countStatements(long expectedResults, Supplier<? extends Number> call) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertThat(call.get().longValue()).isEqualTo(expectedResults);
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import ru.practicum.dto.event.EventShortDto;
+import ru.practicum.model.Category;
+import ru.practicum.model.Event;
+import ru.practicum.model.User;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "main-service.search-cache.enabled=true")
+class EventSearchTextTest extends ServiceIntegrationTest {
+
+    @Autowired
+    private EventService eventService;
+
+    private Long concertId;
+
+    @BeforeEach
+    void setUp() {
+        User initiator = saveUser("initiator");
+        Category category = saveCategory("music");
+        concertId = save(initiator, category, "Jazz concert in the park").getId();
+        save(initiator, category, "Photo exhibition");
+    }
+
+    @Test
+    void paddedMixedCaseTextQueriesTheSameTextAsItsCacheKey() {
+        List<Long> padded = search("  CONCERT ");
+        List<Long> plain = search("concert");
+
+        assertThat(padded).containsExactly(concertId);
+        assertThat(plain).isEqualTo(padded);
+    }
+
+    private List<Long> search(String text) {
+        return eventService.searchPublic(text, null, null, null, null, false, null, null, 0, 10,
+                new MockHttpServletRequest("GET", "/events")).events().stream().map(EventShortDto::getId).toList();
+    }
+
+    private Event save(User initiator, Category category, String annotation) {
+        return eventRepository.save(publishedEvent(initiator, category).annotation(annotation).build());
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.config.ViewCounterProperties;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class EventViewCounterTest {
+
+    private static final long EVENT_ID = 1L;
+
+    private final List<Long> pendingDuringFlush = new ArrayList<>();
+    private boolean failing;
+    private final EventViewCounter counter;
+
+    EventViewCounterTest() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                           ParameterizedPreparedStatementSetter<T> pss) {
+                pendingDuringFlush.add(counter.pending(EVENT_ID));
+                if (failing) {
+                    throw new DataAccessResourceFailureException("база недоступна");
+                }
+                return new int[0][];
+            }
+        };
+        counter = new EventViewCounter(jdbcTemplate, mock(PlatformTransactionManager.class),
+                new ViewCounterProperties());
+    }
+
+    @Test
+    void drainedViewsStayVisibleUntilCommit() {
+        counter.increment(EVENT_ID);
+        counter.increment(EVENT_ID);
+        counter.increment(EVENT_ID);
+
+        counter.flush();
+
+        assertThat(pendingDuringFlush).containsExactly(3L);
+        assertThat(counter.pending(EVENT_ID)).isZero();
+    }
+
+    @Test
+    void failedFlushKeepsViewsVisibleUntilRetry() {
+        failing = true;
+        counter.increment(EVENT_ID);
+        counter.increment(EVENT_ID);
+
+        counter.flush();
+
+        assertThat(counter.pending(EVENT_ID)).isEqualTo(2);
+        failing = false;
+        counter.flush();
+
+        assertThat(pendingDuringFlush).containsExactly(2L, 2L);
+        assertThat(counter.pending(EVENT_ID)).isZero();
+    }
+}
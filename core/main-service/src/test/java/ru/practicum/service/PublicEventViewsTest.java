@@ -0,0 +1,82 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.client.RestClientException;
+import ru.practicum.dto.event.EventFullDto;
+import ru.practicum.model.Event;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = "main-service.views.flush-interval=PT1H")
+class PublicEventViewsTest extends ServiceIntegrationTest {
+
+    private static final long PERSISTED_VIEWS = 7;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventViewCounter viewCounter;
+
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        viewCounter.flush();
+        event = eventRepository.save(publishedEvent(saveUser("initiator"), saveCategory("category"))
+                .requestModeration(false)
+                .views(PERSISTED_VIEWS)
+                .build());
+    }
+
+    @Test
+    void publicReadAddsPendingViewsToPersistedCountWhenStatsAnswerZero() {
+        when(statsClient.getViews(anyList(), any(), any(), anyBoolean())).thenReturn(Map.of(event.getId(), 0L));
+
+        assertThat(getPublicEvent().getViews()).isEqualTo(PERSISTED_VIEWS + 1);
+        assertThat(getPublicEvent().getViews()).isEqualTo(PERSISTED_VIEWS + 2);
+    }
+
+    @Test
+    void publicReadAddsPendingViewsToPersistedCountWhenStatsFail() {
+        when(statsClient.getViews(anyList(), any(), any(), anyBoolean()))
+                .thenThrow(new RestClientException("stats-server недоступен"));
+
+        assertThat(getPublicEvent().getViews()).isEqualTo(PERSISTED_VIEWS + 1);
+    }
+
+    @Test
+    void flushPersistsPendingViewsAndDropsDrainedEvents() {
+        getPublicEvent();
+        getPublicEvent();
+        assertThat(viewCounter.pending(event.getId())).isEqualTo(2);
+
+        viewCounter.flush();
+
+        assertThat(viewCounter.pending(event.getId())).isZero();
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getViews())
+                .isEqualTo(PERSISTED_VIEWS + 2);
+
+        viewCounter.flush();
+
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getViews())
+                .isEqualTo(PERSISTED_VIEWS + 2);
+        assertThat(getPublicEvent().getViews()).isEqualTo(PERSISTED_VIEWS + 3);
+    }
+
+    private EventFullDto getPublicEvent() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/events/" + event.getId());
+        request.setRemoteAddr("192.168.0.1");
+        return eventService.getPublicEvent(event.getId(), request);
+    }
+}
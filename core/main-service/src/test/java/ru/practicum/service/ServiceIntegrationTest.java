@@ -0,0 +1,84 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.client.StatsClient;
+import ru.practicum.model.Category;
+import ru.practicum.model.Event;
+import ru.practicum.model.EventState;
+import ru.practicum.model.Location;
+import ru.practicum.model.User;
+import ru.practicum.repository.CategoryRepository;
+import ru.practicum.repository.CompilationRepository;
+import ru.practicum.repository.EventRepository;
+import ru.practicum.repository.RequestRepository;
+import ru.practicum.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Общая основа интеграционных тестов сервисов: контекст на H2 с заглушкой клиента статистики, очистка
+ * таблиц перед каждым тестом и фабрики сущностей. Наследники с собственными свойствами поднимают свой
+ * контекст на той же базе в памяти, поэтому контекст закрывается после класса и не делит схему с другими.
+ */
+@SpringBootTest
+@DirtiesContext
+abstract class ServiceIntegrationTest {
+
+    @MockBean
+    protected StatsClient statsClient;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected CategoryRepository categoryRepository;
+
+    @Autowired
+    protected EventRepository eventRepository;
+
+    @Autowired
+    protected RequestRepository requestRepository;
+
+    @Autowired
+    protected CompilationRepository compilationRepository;
+
+    @BeforeEach
+    void cleanDatabase() {
+        compilationRepository.deleteAll();
+        requestRepository.deleteAll();
+        eventRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    protected User saveUser(String name) {
+        return userRepository.save(User.builder().name(name).email(name + "@mail.ru").build());
+    }
+
+    protected Category saveCategory(String name) {
+        return categoryRepository.save(Category.builder().name(name).build());
+    }
+
+    /**
+     * Опубликованное событие на завтра без лимита участников; тест меняет только нужные ему поля.
+     */
+    protected Event.EventBuilder publishedEvent(User initiator, Category category) {
+        return Event.builder()
+                .title("title")
+                .annotation("annotation")
+                .description("description")
+                .eventDate(LocalDateTime.now().plusDays(1))
+                .createdOn(LocalDateTime.now())
+                .publishedOn(LocalDateTime.now())
+                .initiator(initiator)
+                .category(category)
+                .location(new Location(55.75f, 37.61f))
+                .state(EventState.PUBLISHED)
+                .participantLimit(0)
+                .requestModeration(true);
+    }
+}
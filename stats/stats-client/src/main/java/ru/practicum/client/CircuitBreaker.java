@@ -0,0 +1,128 @@
+package ru.practicum.client;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+class CircuitBreaker {
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final StatsResilienceProperties.Breaker properties;
+    private final boolean[] outcomes;
+    private final Counter notPermittedCounter;
+    private final Ticker ticker;
+
+    private State state = State.CLOSED;
+    private int recorded;
+    private int next;
+    private int failures;
+    private long openUntil;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    CircuitBreaker(StatsResilienceProperties.Breaker properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Ticker.systemTicker());
+    }
+
+    CircuitBreaker(StatsResilienceProperties.Breaker properties, MeterRegistry meterRegistry, Ticker ticker) {
+        this.properties = properties;
+        this.ticker = ticker;
+        this.outcomes = new boolean[properties.getWindowSize()];
+        Gauge.builder("stats.client.breaker.state", this, breaker -> breaker.state().ordinal())
+                .description("Состояние circuit breaker: 0 - закрыт, 1 - открыт, 2 - полуоткрыт")
+                .register(meterRegistry);
+        this.notPermittedCounter = Counter.builder("stats.client.breaker.not_permitted")
+                .register(meterRegistry);
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    synchronized boolean tryAcquire() {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        if (state == State.OPEN && ticker.read() - openUntil >= 0) {
+            transition(State.HALF_OPEN);
+            halfOpenPermits = properties.getHalfOpenCalls();
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+            halfOpenPermits--;
+            return true;
+        }
+        notPermittedCounter.increment();
+        return false;
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= properties.getHalfOpenCalls()) {
+                transition(State.CLOSED);
+                resetWindow();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= properties.getMinimumCalls()
+                    && failures * 100 >= properties.getFailureRateThreshold() * recorded) {
+                open();
+            }
+        }
+    }
+
+    private void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        transition(State.OPEN);
+        openUntil = ticker.read() + properties.getOpenFor().toNanos();
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+
+    private void transition(State target) {
+        if (state != target) {
+            log.warn("Circuit breaker сервера статистики: {} -> {}", state, target);
+            state = target;
+        }
+    }
+}
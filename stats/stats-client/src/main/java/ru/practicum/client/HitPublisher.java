@@ -0,0 +1,148 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.EndpointHitDto;
+import ru.practicum.HitBatchResultDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+@Slf4j
+class HitPublisher {
+
+    private final HitPublisherProperties properties;
+    private final Function<List<EndpointHitDto>, HitBatchResultDto> sender;
+    private final HitSpool spool;
+    private final Queue<EndpointHitDto> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Counter sentCounter;
+    private final Counter overflowCounter;
+    private final Counter rejectedCounter;
+    private final Counter sendErrorCounter;
+    private final Timer sendTimer;
+
+    private volatile boolean running;
+    private Thread senderThread;
+
+    HitPublisher(HitPublisherProperties properties,
+                 Function<List<EndpointHitDto>, HitBatchResultDto> sender,
+                 HitSpool spool,
+                 MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.sender = sender;
+        this.spool = spool;
+        Gauge.builder("stats.client.publisher.queued", size, AtomicInteger::get)
+                .description("Количество просмотров, ожидающих отправки")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("stats.client.publisher.sent")
+                .register(meterRegistry);
+        this.overflowCounter = Counter.builder("stats.client.publisher.dropped")
+                .tag("reason", "overflow")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("stats.client.publisher.dropped")
+                .tag("reason", "rejected")
+                .register(meterRegistry);
+        this.sendErrorCounter = Counter.builder("stats.client.publisher.dropped")
+                .tag("reason", "send_error")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("stats.client.publisher.send")
+                .description("Время отправки пакета просмотров")
+                .register(meterRegistry);
+    }
+
+    boolean publish(EndpointHitDto hit) {
+        int queued = size.incrementAndGet();
+        if (queued > properties.getCapacity()) {
+            size.decrementAndGet();
+            if (spool != null && spool.append(hit)) {
+                return true;
+            }
+            overflowCounter.increment();
+            return false;
+        }
+        queue.offer(hit);
+        if (queued == properties.getBatchSize()) {
+            LockSupport.unpark(senderThread);
+        }
+        return true;
+    }
+
+    void start() {
+        running = true;
+        senderThread = new Thread(this::sendLoop, "stats-hit-publisher");
+        senderThread.setDaemon(true);
+        senderThread.start();
+        log.info("Асинхронная отправка просмотров включена: емкость {}, пакет {}, интервал {}",
+                properties.getCapacity(), properties.getBatchSize(), properties.getFlushInterval());
+    }
+
+    void stop() throws InterruptedException {
+        if (senderThread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(senderThread);
+        senderThread.join(properties.getShutdownTimeout().toMillis());
+        if (senderThread.isAlive()) {
+            log.warn("Не удалось отправить все просмотры при остановке, осталось {}", size.get());
+        }
+    }
+
+    private void sendLoop() {
+        long intervalNanos = properties.getFlushInterval().toNanos();
+        int batchSize = properties.getBatchSize();
+        List<EndpointHitDto> batch = new ArrayList<>(batchSize);
+        while (running || size.get() > 0) {
+            if (running && size.get() < batchSize) {
+                LockSupport.parkNanos(this, intervalNanos);
+            }
+            EndpointHitDto hit;
+            while (batch.size() < batchSize && (hit = queue.poll()) != null) {
+                size.decrementAndGet();
+                batch.add(hit);
+            }
+            send(batch);
+            batch.clear();
+        }
+    }
+
+    private void send(List<EndpointHitDto> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (spool != null && spool.isBackingOff()) {
+            int spooled = spool.appendAll(batch);
+            sendErrorCounter.increment(batch.size() - spooled);
+            return;
+        }
+        try {
+            HitBatchResultDto result = sendTimer.record(() -> sender.apply(batch));
+            int rejected = result == null || result.getRejected() == null ? 0 : result.getRejected().size();
+            sentCounter.increment(batch.size() - rejected);
+            rejectedCounter.increment(rejected);
+        } catch (Exception e) {
+            if (StatsErrors.isPermanent(e)) {
+                rejectedCounter.increment(batch.size());
+                log.warn("Сервер статистики отклонил пакет из {} просмотров: {}", batch.size(), e.getMessage());
+                return;
+            }
+            int spooled = 0;
+            if (spool != null) {
+                spooled = spool.appendAll(batch);
+                spool.backOff(StatsErrors.retryAfter(e));
+            }
+            sendErrorCounter.increment(batch.size() - spooled);
+            log.warn("Не удалось отправить пакет из {} просмотров, в локальный буфер записано {}: {}",
+                    batch.size(), spooled, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats-server.publisher")
+public class HitPublisherProperties {
+
+    private boolean enabled = true;
+    private int capacity = 10000;
+    private int batchSize = 200;
+    private Duration flushInterval = Duration.ofMillis(200);
+    private Duration shutdownTimeout = Duration.ofSeconds(5);
+}
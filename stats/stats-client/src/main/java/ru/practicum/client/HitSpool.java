@@ -0,0 +1,394 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.EndpointHitDto;
+import ru.practicum.HitBatchResultDto;
+import ru.practicum.HitDatagramCodec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+@Slf4j
+class HitSpool implements AutoCloseable {
+
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".spool";
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final HitSpoolProperties properties;
+    private final Path directory;
+    private final int segmentSize;
+    private final Function<List<EndpointHitDto>, HitBatchResultDto> sender;
+    private final NavigableMap<Long, Path> segments = new TreeMap<>();
+    private final ScheduledExecutorService replayer;
+    private final Counter appendedCounter;
+    private final Counter droppedCounter;
+    private final Counter replayedCounter;
+    private final Counter corruptCounter;
+
+    private long activeSeq;
+    private MappedByteBuffer active;
+
+    private long readSeq;
+    private int readOffset;
+    private long readMapSeq = -1;
+    private MappedByteBuffer readMap;
+
+    private volatile long retryAfterUntil;
+    private long nextReplayAt;
+    private int replayFailures;
+
+    HitSpool(HitSpoolProperties properties,
+             Function<List<EndpointHitDto>, HitBatchResultDto> sender,
+             MeterRegistry meterRegistry) throws IOException {
+        this.properties = properties;
+        this.directory = Path.of(properties.getDirectory());
+        this.segmentSize = (int) Math.min(properties.getSegmentSize().toBytes(), Integer.MAX_VALUE);
+        this.sender = sender;
+        this.appendedCounter = Counter.builder("stats.client.spool.appended")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("stats.client.spool.dropped")
+                .register(meterRegistry);
+        this.replayedCounter = Counter.builder("stats.client.spool.replayed")
+                .register(meterRegistry);
+        this.corruptCounter = Counter.builder("stats.client.spool.corrupt")
+                .register(meterRegistry);
+        Gauge.builder("stats.client.spool.segments", this, HitSpool::segmentCount)
+                .register(meterRegistry);
+
+        this.retryAfterUntil = System.nanoTime();
+        this.nextReplayAt = retryAfterUntil;
+        Files.createDirectories(directory);
+        openSegments();
+        loadCheckpoint();
+        this.replayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-hit-spool-replayer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getReplayInterval().toMillis();
+        replayer.scheduleWithFixedDelay(this::replay, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Локальный буфер просмотров: {}, сегментов {}", directory, segments.size());
+    }
+
+    boolean append(EndpointHitDto hit) {
+        byte[] payload;
+        try {
+            payload = HitDatagramCodec.encode(hit);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            droppedCounter.increment();
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        synchronized (segments) {
+            try {
+                if (active.remaining() < HEADER_SIZE + payload.length && !roll()) {
+                    droppedCounter.increment();
+                    return false;
+                }
+            } catch (IOException e) {
+                log.error("Не удалось создать сегмент локального буфера просмотров", e);
+                droppedCounter.increment();
+                return false;
+            }
+            int position = active.position();
+            active.put(position + HEADER_SIZE, payload);
+            active.putInt(position + Integer.BYTES, (int) crc.getValue());
+            active.putInt(position, payload.length);
+            active.position(position + HEADER_SIZE + payload.length);
+        }
+        appendedCounter.increment();
+        return true;
+    }
+
+    /**
+     * Откладывает обращения к серверу на время из Retry-After: до его истечения {@link #isBackingOff()}
+     * возвращает {@code true}, а повторная отправка из буфера не запускается.
+     */
+    void backOff(Duration retryAfter) {
+        if (retryAfter == null || retryAfter.isZero()) {
+            return;
+        }
+        long until = System.nanoTime() + retryAfter.toNanos();
+        synchronized (this) {
+            if (until - retryAfterUntil > 0) {
+                retryAfterUntil = until;
+            }
+        }
+    }
+
+    boolean isBackingOff() {
+        return System.nanoTime() - retryAfterUntil < 0;
+    }
+
+    int appendAll(List<EndpointHitDto> hits) {
+        int appended = 0;
+        for (EndpointHitDto hit : hits) {
+            if (append(hit)) {
+                appended++;
+            }
+        }
+        return appended;
+    }
+
+    @Override
+    public void close() {
+        replayer.shutdownNow();
+        synchronized (segments) {
+            active.force();
+        }
+    }
+
+    private int segmentCount() {
+        synchronized (segments) {
+            return segments.size();
+        }
+    }
+
+    private void openSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .forEach(file -> segments.put(sequenceOf(file), file));
+        }
+        if (segments.isEmpty()) {
+            createSegment(0);
+            return;
+        }
+        activeSeq = segments.lastKey();
+        active = map(segments.lastEntry().getValue());
+        active.position(recover(active));
+    }
+
+    private boolean roll() throws IOException {
+        if (segments.size() >= properties.getMaxSegments()) {
+            return false;
+        }
+        active.force();
+        createSegment(activeSeq + 1);
+        return true;
+    }
+
+    private void createSegment(long seq) throws IOException {
+        Path file = directory.resolve(SEGMENT_PREFIX + String.format("%020d", seq) + SEGMENT_SUFFIX);
+        MappedByteBuffer buffer = map(file);
+        segments.put(seq, file);
+        activeSeq = seq;
+        active = buffer;
+    }
+
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private int recover(MappedByteBuffer buffer) {
+        int position = 0;
+        while (true) {
+            int length = recordLength(buffer, position);
+            if (length <= 0) {
+                break;
+            }
+            position += HEADER_SIZE + length;
+        }
+        if (position + Integer.BYTES <= segmentSize && buffer.getInt(position) != 0) {
+            corruptCounter.increment();
+            for (int i = position; i < segmentSize; i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        return position;
+    }
+
+    private int recordLength(ByteBuffer buffer, int position) {
+        if (position + HEADER_SIZE > segmentSize) {
+            return 0;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || position + HEADER_SIZE + length > segmentSize) {
+            return 0;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(position + HEADER_SIZE, payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+            return -1;
+        }
+        return length;
+    }
+
+    void replay() {
+        long now = System.nanoTime();
+        if (now - retryAfterUntil < 0 || now - nextReplayAt < 0) {
+            return;
+        }
+        try {
+            long pauseNanos = TimeUnit.SECONDS.toNanos(1) * properties.getReplayBatchSize()
+                    / Math.max(1, properties.getReplayRate());
+            while (!Thread.currentThread().isInterrupted()) {
+                List<EndpointHitDto> batch = new ArrayList<>(properties.getReplayBatchSize());
+                int nextOffset = readBatch(batch);
+                if (batch.isEmpty()) {
+                    return;
+                }
+                try {
+                    sender.apply(batch);
+                    replayedCounter.increment(batch.size());
+                } catch (RuntimeException e) {
+                    if (!StatsErrors.isPermanent(e)) {
+                        Duration delay = postponeReplay(StatsErrors.retryAfter(e));
+                        log.debug("Сервер статистики недоступен, повтор отправки из буфера через {}: {}",
+                                delay, e.getMessage());
+                        return;
+                    }
+                    droppedCounter.increment(batch.size());
+                    log.warn("Сервер статистики отклонил {} просмотров из локального буфера: {}",
+                            batch.size(), e.getMessage());
+                }
+                replayFailures = 0;
+                readOffset = nextOffset;
+                saveCheckpoint();
+                TimeUnit.NANOSECONDS.sleep(pauseNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Ошибка повторной отправки просмотров из локального буфера", e);
+        }
+    }
+
+    private Duration postponeReplay(Duration retryAfter) {
+        long base = properties.getReplayInterval().toNanos();
+        long max = Math.max(base, properties.getMaxReplayBackoff().toNanos());
+        long backoff = Math.min(max, base << Math.min(replayFailures, 20));
+        replayFailures++;
+        Duration delay = Duration.ofNanos(retryAfter == null ? backoff : Math.max(backoff, retryAfter.toNanos()));
+        nextReplayAt = System.nanoTime() + delay.toNanos();
+        return delay;
+    }
+
+    private int readBatch(List<EndpointHitDto> batch) throws IOException {
+        while (true) {
+            int limit;
+            boolean readingActive;
+            Path file;
+            synchronized (segments) {
+                if (!segments.containsKey(readSeq)) {
+                    Long next = segments.ceilingKey(readSeq);
+                    readSeq = next == null ? activeSeq : next;
+                    readOffset = 0;
+                }
+                // запись продолжается только в активный сегмент: закрытый к этому моменту сегмент уже не
+                // изменится, и его можно дочитать до конца и удалить, даже если писатель успеет переключиться
+                readingActive = readSeq == activeSeq;
+                limit = readingActive ? active.position() : segmentSize;
+                file = segments.get(readSeq);
+            }
+            if (readMapSeq != readSeq) {
+                readMap = map(file);
+                readMapSeq = readSeq;
+            }
+            int position = readOffset;
+            while (batch.size() < properties.getReplayBatchSize() && position < limit) {
+                int length = recordLength(readMap, position);
+                if (length < 0) {
+                    corruptCounter.increment();
+                    log.warn("Поврежденная запись в сегменте {} локального буфера, остаток сегмента пропущен", readSeq);
+                    position = segmentSize;
+                    break;
+                }
+                if (length == 0) {
+                    if (!readingActive) {
+                        position = segmentSize;
+                    }
+                    break;
+                }
+                byte[] payload = new byte[length];
+                readMap.get(position + HEADER_SIZE, payload);
+                try {
+                    batch.addAll(HitDatagramCodec.decode(ByteBuffer.wrap(payload)));
+                } catch (IllegalArgumentException e) {
+                    corruptCounter.increment();
+                }
+                position += HEADER_SIZE + length;
+            }
+            if (!batch.isEmpty() || readingActive || position < segmentSize) {
+                return position;
+            }
+            deleteSegment(readSeq);
+        }
+    }
+
+    private void deleteSegment(long seq) throws IOException {
+        Path file;
+        synchronized (segments) {
+            file = segments.remove(seq);
+            Long next = segments.higherKey(seq);
+            readSeq = next == null ? activeSeq : next;
+            readOffset = 0;
+        }
+        readMap = null;
+        readMapSeq = -1;
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+        saveCheckpoint();
+    }
+
+    private void loadCheckpoint() throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT);
+        readSeq = segments.firstKey();
+        readOffset = 0;
+        if (!Files.exists(checkpoint)) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+        if (buffer.remaining() == Long.BYTES + Integer.BYTES) {
+            long seq = buffer.getLong();
+            int offset = buffer.getInt();
+            if (segments.containsKey(seq)) {
+                readSeq = seq;
+                readOffset = offset;
+            }
+        }
+    }
+
+    private void saveCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + Integer.BYTES)
+                .putLong(readSeq)
+                .putInt(readOffset);
+        Path temp = directory.resolve(CHECKPOINT + ".tmp");
+        Files.write(temp, buffer.array());
+        Files.move(temp, directory.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats-server.spool")
+public class HitSpoolProperties {
+
+    private boolean enabled = false;
+    private String directory = System.getProperty("java.io.tmpdir") + "/stats-hit-spool";
+    private DataSize segmentSize = DataSize.ofMegabytes(16);
+    private int maxSegments = 16;
+    private int replayBatchSize = 500;
+    private int replayRate = 2000;
+    private Duration replayInterval = Duration.ofSeconds(5);
+    private Duration maxReplayBackoff = Duration.ofMinutes(1);
+}
@@ -0,0 +1,80 @@
+package ru.practicum.client;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.net.URI;
+
+final class PooledRequestFactory {
+
+    private PooledRequestFactory() {
+    }
+
+    static HttpComponentsClientHttpRequestFactory create(StatsHttpProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnections())
+                .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.getResponseTimeout()))
+                        .setTimeToLive(TimeValue.of(properties.getKeepAlive()))
+                        .build())
+                .build();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+                .setResponseTimeout(Timeout.of(properties.getResponseTimeout()))
+                .build();
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(properties.getKeepAlive()))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.getEvictIdleAfter()))
+                .build();
+        return new DeadlineAwareRequestFactory(httpClient, requestConfig);
+    }
+
+    private static class DeadlineAwareRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+        private final RequestConfig requestConfig;
+
+        DeadlineAwareRequestFactory(CloseableHttpClient httpClient, RequestConfig requestConfig) {
+            super(httpClient);
+            this.requestConfig = requestConfig;
+        }
+
+        @Override
+        protected HttpContext createHttpContext(HttpMethod httpMethod, URI uri) {
+            StatsCallAttempt attempt = StatsCallAttempt.current();
+            if (attempt == null) {
+                return super.createHttpContext(httpMethod, uri);
+            }
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(RequestConfig.copy(requestConfig)
+                    .setConnectionRequestTimeout(attempt.bound(requestConfig.getConnectionRequestTimeout()))
+                    .setResponseTimeout(attempt.responseTimeout(requestConfig.getResponseTimeout()))
+                    .build());
+            return context;
+        }
+
+        @Override
+        protected void postProcessHttpRequest(ClassicHttpRequest request) {
+            StatsCallAttempt attempt = StatsCallAttempt.current();
+            if (attempt != null && request instanceof Cancellable cancellable) {
+                attempt.attach(cancellable);
+            }
+        }
+    }
+}
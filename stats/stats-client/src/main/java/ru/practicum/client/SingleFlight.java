@@ -0,0 +1,59 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaderCounter;
+    private final Counter sharedCounter;
+
+    SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.leaderCounter = Counter.builder("stats.client.single_flight")
+                .tag("call", name)
+                .tag("result", "leader")
+                .register(meterRegistry);
+        this.sharedCounter = Counter.builder("stats.client.single_flight")
+                .tag("call", name)
+                .tag("result", "shared")
+                .register(meterRegistry);
+    }
+
+    V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            sharedCounter.increment();
+            return await(existing);
+        }
+        leaderCounter.increment();
+        try {
+            V result = call.get();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
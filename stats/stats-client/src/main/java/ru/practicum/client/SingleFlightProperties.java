@@ -0,0 +1,16 @@
+package ru.practicum.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats-server.single-flight")
+public class SingleFlightProperties {
+
+    private boolean enabled = true;
+    private Duration granularity = Duration.ofSeconds(5);
+}
@@ -0,0 +1,71 @@
+package ru.practicum.client;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.util.Timeout;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+final class StatsCallAttempt {
+
+    private static final ThreadLocal<StatsCallAttempt> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private final boolean streaming;
+    private volatile Cancellable request;
+    private volatile boolean cancelled;
+
+    StatsCallAttempt(long deadlineNanos) {
+        this(deadlineNanos, false);
+    }
+
+    StatsCallAttempt(long deadlineNanos, boolean streaming) {
+        this.deadlineNanos = deadlineNanos;
+        this.streaming = streaming;
+    }
+
+    static StatsCallAttempt current() {
+        return CURRENT.get();
+    }
+
+    <T> T run(Supplier<T> call) {
+        CURRENT.set(this);
+        try {
+            return call.get();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    Timeout bound(Timeout timeout) {
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        return Timeout.ofMilliseconds(Math.max(1, Math.min(timeout.toMilliseconds(), remainingMillis)));
+    }
+
+    /**
+     * Таймаут ожидания данных из сокета. Для потокового ответа он действует на каждое чтение тела, которое
+     * продолжается после возврата из вызова, поэтому срок вызова к нему не применяется.
+     */
+    Timeout responseTimeout(Timeout timeout) {
+        return streaming ? timeout : bound(timeout);
+    }
+
+    void attach(Cancellable request) {
+        this.request = request;
+        if (cancelled) {
+            request.cancel();
+        }
+    }
+
+    void cancel() {
+        cancelled = true;
+        Cancellable current = request;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,258 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.web.client.RestClientException;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.BaseStream;
+
+class StatsCallExecutor implements AutoCloseable {
+
+    enum Operation {
+        READ,
+        WRITE,
+        STREAM
+    }
+
+    private final StatsServerBalancer balancer;
+    private final StatsResilienceProperties properties;
+    private final CircuitBreaker breaker;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Timer readTimer;
+    private final Timer writeTimer;
+    private final Timer streamTimer;
+    private final Counter timeoutCounter;
+    private final Counter hedgeIssuedCounter;
+    private final Counter hedgeWonCounter;
+
+    StatsCallExecutor(StatsServerBalancer balancer, StatsResilienceProperties properties, MeterRegistry meterRegistry) {
+        this(balancer, properties, new CircuitBreaker(properties.getBreaker(), meterRegistry), meterRegistry);
+    }
+
+    StatsCallExecutor(StatsServerBalancer balancer, StatsResilienceProperties properties, CircuitBreaker breaker,
+                      MeterRegistry meterRegistry) {
+        this.balancer = balancer;
+        this.properties = properties;
+        this.breaker = breaker;
+        this.readTimer = Timer.builder("stats.client.call")
+                .tag("operation", "read")
+                .publishPercentiles(0.95)
+                .register(meterRegistry);
+        this.writeTimer = Timer.builder("stats.client.call")
+                .tag("operation", "write")
+                .register(meterRegistry);
+        this.streamTimer = Timer.builder("stats.client.call")
+                .tag("operation", "stream")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("stats.client.call.timeouts")
+                .register(meterRegistry);
+        this.hedgeIssuedCounter = Counter.builder("stats.client.hedge")
+                .tag("result", "issued")
+                .register(meterRegistry);
+        this.hedgeWonCounter = Counter.builder("stats.client.hedge")
+                .tag("result", "won")
+                .register(meterRegistry);
+    }
+
+    <T> T execute(Operation operation, Function<URI, T> request) {
+        if (!breaker.tryAcquire()) {
+            throw new RestClientException("Сервер статистики временно недоступен, запрос отклонен без отправки");
+        }
+        Duration timeout = switch (operation) {
+            case READ -> properties.getReadTimeout();
+            case WRITE -> properties.getWriteTimeout();
+            case STREAM -> properties.getStreamTimeout();
+        };
+        long started = System.nanoTime();
+        try {
+            T result = operation == Operation.READ && properties.getHedge().isEnabled()
+                    ? hedged(request, timeout)
+                    : single(operation, request, timeout);
+            breaker.onSuccess();
+            timer(operation).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (RuntimeException e) {
+            // 4xx по вине запроса не говорит о состоянии сервера, а 408/429 и 5xx - признак перегрузки
+            if (StatsErrors.isPermanent(e)) {
+                breaker.onSuccess();
+            } else {
+                breaker.onFailure();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private Timer timer(Operation operation) {
+        return switch (operation) {
+            case READ -> readTimer;
+            case WRITE -> writeTimer;
+            case STREAM -> streamTimer;
+        };
+    }
+
+    private <T> T single(Operation operation, Function<URI, T> request, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Attempt<T> attempt = submit(operation, balancer.acquire(), request, deadline);
+        try {
+            return await(attempt.result(), deadline - System.nanoTime());
+        } finally {
+            attempt.cancel();
+        }
+    }
+
+    private <T> T hedged(Function<URI, T> request, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        StatsServerBalancer.Lease primaryLease = balancer.acquire();
+        Attempt<T> primary = submit(Operation.READ, primaryLease, request, deadline);
+        long hedgeDelay = Math.min(hedgeDelayNanos(), timeout.toNanos());
+        try {
+            return primary.result().get(hedgeDelay, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            hedgeIssuedCounter.increment();
+        } catch (ExecutionException e) {
+            RuntimeException error = unwrap(e);
+            if (StatsErrors.isPermanent(error) || deadline - System.nanoTime() <= 0) {
+                throw error;
+            }
+            hedgeIssuedCounter.increment();
+        } catch (InterruptedException e) {
+            primary.cancel();
+            Thread.currentThread().interrupt();
+            throw new RestClientException("Запрос к серверу статистики прерван", e);
+        }
+
+        Attempt<T> secondary = submit(Operation.READ, balancer.acquire(primaryLease.uri()), request, deadline);
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        primary.result().whenComplete((result, error) -> complete(winner, failures, result, error, false));
+        secondary.result().whenComplete((result, error) -> complete(winner, failures, result, error, true));
+        try {
+            return await(winner, deadline - System.nanoTime());
+        } finally {
+            primary.cancel();
+            secondary.cancel();
+        }
+    }
+
+    private <T> void complete(CompletableFuture<T> winner, AtomicInteger failures, T result, Throwable error,
+                              boolean hedge) {
+        if (error == null) {
+            if (winner.complete(result) && hedge) {
+                hedgeWonCounter.increment();
+            }
+        } else if (failures.incrementAndGet() == 2) {
+            winner.completeExceptionally(error);
+        }
+    }
+
+    private long hedgeDelayNanos() {
+        StatsResilienceProperties.Hedge hedge = properties.getHedge();
+        long p95 = 0;
+        for (ValueAtPercentile percentile : readTimer.takeSnapshot().percentileValues()) {
+            p95 = (long) percentile.value(TimeUnit.NANOSECONDS);
+        }
+        return Math.max(hedge.getMinDelay().toNanos(), Math.min(hedge.getMaxDelay().toNanos(), p95));
+    }
+
+    private <T> Attempt<T> submit(Operation operation, StatsServerBalancer.Lease lease, Function<URI, T> request,
+                                  long deadline) {
+        StatsCallAttempt call = new StatsCallAttempt(deadline, operation == Operation.STREAM);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            boolean success = false;
+            boolean streaming = false;
+            try {
+                T value = call.run(() -> request.apply(lease.uri()));
+                if (operation == Operation.STREAM && value instanceof BaseStream<?, ?> stream) {
+                    // пока поток читается, запрос к экземпляру не завершен: аренда освобождается при закрытии
+                    value = holdLease(stream, lease);
+                    streaming = true;
+                }
+                success = true;
+                result.complete(value);
+            } catch (Throwable e) {
+                success = StatsErrors.isPermanent(e);
+                result.completeExceptionally(e);
+            } finally {
+                if (!streaming) {
+                    lease.release(success || call.isCancelled());
+                }
+            }
+        });
+        return new Attempt<>(result, call, task, lease);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T holdLease(BaseStream<?, ?> stream, StatsServerBalancer.Lease lease) {
+        return (T) stream.onClose(() -> lease.release(true));
+    }
+
+    private <T> T await(CompletableFuture<T> future, long timeoutNanos) {
+        try {
+            return future.get(Math.max(timeoutNanos, 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeoutCounter.increment();
+            throw new RestClientException("Превышено время ожидания ответа сервера статистики", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RestClientException("Запрос к серверу статистики прерван", e);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new RestClientException("Ошибка при обращении к серверу статистики", cause);
+    }
+
+    private record Attempt<T>(CompletableFuture<T> result, StatsCallAttempt call, Future<?> task,
+                              StatsServerBalancer.Lease lease) {
+
+        void cancel() {
+            if (!result.isDone()) {
+                call.cancel();
+                task.cancel(true);
+                lease.release(true);
+                // ответ, пришедший после отмены, никому не достанется: открытый поток нужно закрыть,
+                // иначе соединение останется занятым
+                result.thenAccept(Attempt::closeAbandoned);
+            }
+        }
+
+        private static void closeAbandoned(Object value) {
+            if (value instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    // соединение уже разорвано, закрывать нечего
+                }
+            }
+        }
+    }
+}
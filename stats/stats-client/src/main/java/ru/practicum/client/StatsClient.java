@@ -1,13 +1,26 @@
 package ru.practicum.client;
 
 import ru.practicum.EndpointHitDto;
+import ru.practicum.HitBatchResultDto;
 import ru.practicum.ViewStatsDto;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public interface StatsClient {
 
     void saveHit(EndpointHitDto endpointHitDto);
 
+    void publishHit(EndpointHitDto endpointHitDto);
+
+    HitBatchResultDto saveHits(List<EndpointHitDto> endpointHitDtos);
+
     List<ViewStatsDto> getStats(String start, String end, List<String> uris, Boolean unique);
+
+    Stream<ViewStatsDto> streamStats(String start, String end, List<String> uris, Boolean unique);
+
+    Map<Long, Long> getViews(Collection<Long> eventIds, LocalDateTime start, LocalDateTime end, boolean unique);
 }
@@ -1,83 +1,323 @@
 package ru.practicum.client;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Service;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientException;
+import org.springframework.web.util.UriBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 import ru.practicum.EndpointHitDto;
+import ru.practicum.HitBatchResultDto;
 import ru.practicum.ViewStatsDto;
 
+import java.io.IOException;
+import java.net.URI;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
 @Slf4j
 public class StatsClientImpl implements StatsClient {
 
     private final RestClient restClient;
+    private final HttpComponentsClientHttpRequestFactory requestFactory;
+    private final StatsCallExecutor callExecutor;
+    private final ObjectReader statsReader;
+    private final UdpHitSender udpHitSender;
+    private final HitPublisher hitPublisher;
+    private final HitSpool hitSpool;
+    private final ViewCountCache viewCountCache;
+    private final SingleFlightProperties singleFlightProperties;
+    private final SingleFlight<StatsQuery, List<ViewStatsDto>> statsFlight;
     public static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String EVENT_URI_PREFIX = "/events/";
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
 
-    public StatsClientImpl(@Value("${stats-server.url}") String statsServerUrl) {
+    public StatsClientImpl(StatsServerBalancer balancer, StatsHttpProperties httpProperties, ObjectMapper objectMapper,
+                           UdpHitSender udpHitSender, HitPublisherProperties publisherProperties,
+                           ViewCacheProperties viewCacheProperties, SingleFlightProperties singleFlightProperties,
+                           StatsResilienceProperties resilienceProperties, HitSpoolProperties spoolProperties,
+                           MeterRegistry meterRegistry) {
+        this.singleFlightProperties = singleFlightProperties;
+        this.statsFlight = singleFlightProperties.isEnabled() && singleFlightProperties.getGranularity().toSeconds() > 0
+                ? new SingleFlight<>("stats", meterRegistry)
+                : null;
+        this.viewCountCache = viewCacheProperties.isEnabled()
+                ? new ViewCountCache(viewCacheProperties, this::fetchViews, meterRegistry)
+                : null;
+        this.udpHitSender = udpHitSender;
+        this.statsReader = objectMapper.readerFor(ViewStatsDto.class);
+        this.callExecutor = new StatsCallExecutor(balancer, resilienceProperties, meterRegistry);
+        this.requestFactory = PooledRequestFactory.create(httpProperties);
         this.restClient = RestClient.builder()
-                .baseUrl(statsServerUrl)
+                .requestFactory(requestFactory)
                 .defaultStatusHandler(HttpStatusCode::isError, (request, response) -> {
-                    String errorMessage = "Ошибка при обращении к серверу статистики: " +
-                            response.getStatusCode() + " " + response.getStatusText();
-                    log.error(errorMessage);
-                    if (response.getStatusCode().is4xxClientError()) {
-                        throw new RestClientException("Ошибка запроса: " + errorMessage);
-                    } else if (response.getStatusCode().is5xxServerError()) {
-                        throw new RestClientException("Ошибка сервера: " + errorMessage);
-                    } else {
-                        throw new RestClientException(errorMessage);
-                    }
+                    throw statusError(response);
                 })
                 .build();
+        this.hitSpool = spoolProperties.isEnabled() ? openSpool(spoolProperties, meterRegistry) : null;
+        this.hitPublisher = publisherProperties.isEnabled()
+                ? new HitPublisher(publisherProperties, this::saveHits, hitSpool, meterRegistry)
+                : null;
     }
 
     @Override
     public void saveHit(EndpointHitDto endpointHitDto) {
+        if (udpHitSender.isEnabled()) {
+            udpHitSender.send(endpointHitDto);
+            return;
+        }
+        if (hitSpool != null && hitSpool.isBackingOff() && hitSpool.append(endpointHitDto)) {
+            log.debug("Сервер статистики просил повторить позже, просмотр записан в локальный буфер");
+            return;
+        }
         log.info("Отправка данных статистики: {}", endpointHitDto);
-        restClient.post()
-                .uri("/hit")
+        try {
+            callExecutor.execute(StatsCallExecutor.Operation.WRITE, baseUri -> restClient.post()
+                    .uri(resolve(baseUri, "/hit"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(endpointHitDto)
+                    .retrieve()
+                    .toBodilessEntity());
+        } catch (RestClientException e) {
+            if (StatsErrors.isPermanent(e) || hitSpool == null || !hitSpool.append(endpointHitDto)) {
+                throw e;
+            }
+            hitSpool.backOff(StatsErrors.retryAfter(e));
+            log.warn("Сервер статистики недоступен, просмотр записан в локальный буфер: {}", e.getMessage());
+            return;
+        }
+        log.info("Статистика добавлена");
+    }
+
+    @Override
+    public void publishHit(EndpointHitDto endpointHitDto) {
+        if (udpHitSender.isEnabled() || hitPublisher == null) {
+            saveHit(endpointHitDto);
+            return;
+        }
+        if (!hitPublisher.publish(endpointHitDto)) {
+            log.debug("Очередь отправки просмотров переполнена, просмотр отброшен");
+        }
+    }
+
+    @PostConstruct
+    void startPublisher() {
+        if (hitPublisher != null) {
+            hitPublisher.start();
+        }
+    }
+
+    @PreDestroy
+    void stop() throws Exception {
+        if (hitPublisher != null) {
+            hitPublisher.stop();
+        }
+        if (hitSpool != null) {
+            hitSpool.close();
+        }
+        if (viewCountCache != null) {
+            viewCountCache.close();
+        }
+        callExecutor.close();
+        requestFactory.destroy();
+    }
+
+    @Override
+    public HitBatchResultDto saveHits(List<EndpointHitDto> endpointHitDtos) {
+        log.info("Отправка пакета статистики: {} просмотров", endpointHitDtos.size());
+        HitBatchResultDto result = callExecutor.execute(StatsCallExecutor.Operation.WRITE, baseUri -> restClient.post()
+                .uri(resolve(baseUri, "/hits"))
                 .contentType(MediaType.APPLICATION_JSON)
-                .body(endpointHitDto)
+                .body(endpointHitDtos)
                 .retrieve()
-                .toBodilessEntity();
-        log.info("Статистика добавлена");
+                .body(HitBatchResultDto.class));
+        if (result != null && result.getRejected() != null && !result.getRejected().isEmpty()) {
+            log.warn("Сервер статистики отклонил {} из {} просмотров", result.getRejected().size(),
+                    endpointHitDtos.size());
+        }
+        return result;
     }
 
     @Override
     public List<ViewStatsDto> getStats(String start, String end, List<String> uris, Boolean unique) {
         log.info("Запрос статистики с параметрами start={}, end={}, uris={}, unique={}", start, end, uris, unique);
 
+        LocalDateTime startTime = LocalDateTime.parse(start, DATE_TIME_FORMATTER);
+        LocalDateTime endTime = LocalDateTime.parse(end, DATE_TIME_FORMATTER);
+
+        if (statsFlight == null) {
+            return fetchStats(start, end, uris, unique);
+        }
+        long granularity = singleFlightProperties.getGranularity().toSeconds();
+        String flightStart = floor(startTime, granularity).format(DATE_TIME_FORMATTER);
+        String flightEnd = ceil(endTime, granularity).format(DATE_TIME_FORMATTER);
+        List<String> flightUris = uris == null ? List.of() : uris.stream().distinct().sorted().toList();
+        StatsQuery query = new StatsQuery(flightStart, flightEnd, flightUris, unique);
+        return statsFlight.execute(query, () -> fetchStats(flightStart, flightEnd, uris, unique));
+    }
+
+    private List<ViewStatsDto> fetchStats(String start, String end, List<String> uris, Boolean unique) {
+        List<ViewStatsDto> stats = callExecutor.execute(StatsCallExecutor.Operation.READ, baseUri -> restClient.get()
+                .uri(statsUri(UriComponentsBuilder.fromUri(baseUri), start, end, uris, unique))
+                .retrieve()
+                .body(new ParameterizedTypeReference<List<ViewStatsDto>>() {
+                }));
+        log.info("Статистика получена: {}", stats);
+        return stats == null ? List.of() : List.copyOf(stats);
+    }
+
+    private static LocalDateTime floor(LocalDateTime time, long granularitySeconds) {
+        long epochSecond = time.toEpochSecond(ZoneOffset.UTC);
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochSecond, granularitySeconds) * granularitySeconds,
+                0, ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime ceil(LocalDateTime time, long granularitySeconds) {
+        LocalDateTime floor = floor(time, granularitySeconds);
+        return floor.equals(time) ? floor : floor.plusSeconds(granularitySeconds);
+    }
+
+    @Override
+    public Stream<ViewStatsDto> streamStats(String start, String end, List<String> uris, Boolean unique) {
+        log.info("Потоковый запрос статистики с параметрами start={}, end={}, uris={}, unique={}",
+                start, end, uris, unique);
+
         LocalDateTime.parse(start, DATE_TIME_FORMATTER);
         LocalDateTime.parse(end, DATE_TIME_FORMATTER);
 
-        List<ViewStatsDto> stats = restClient.get()
-                .uri(uriBuilder -> {
-                    uriBuilder.path("/stats")
-                            .queryParam("start", start)
-                            .queryParam("end", end);
-                    if (uris != null && !uris.isEmpty()) {
-                        for (String uri : uris) {
-                            uriBuilder.queryParam("uris", uri);
-                        }
+        // выключатель и stream-timeout ограничивают только получение заголовков ответа; каждое чтение
+        // строк потока ждет не дольше stats-server.http.response-timeout, а общей длительности у потока нет
+        return callExecutor.execute(StatsCallExecutor.Operation.STREAM, baseUri -> restClient.get()
+                .uri(statsUri(UriComponentsBuilder.fromUri(baseUri), start, end, uris, unique))
+                .accept(NDJSON)
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isError()) {
+                        RestClientException error = statusError(response);
+                        response.close();
+                        throw error;
                     }
-                    if (unique != null) {
-                        uriBuilder.queryParam("unique", unique);
+                    try {
+                        MappingIterator<ViewStatsDto> rows = statsReader.readValues(response.getBody());
+                        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED), false)
+                                .onClose(response::close);
+                    } catch (IOException | RuntimeException e) {
+                        response.close();
+                        throw new RestClientException("Не удалось прочитать поток статистики", e);
                     }
-                    return uriBuilder.build();
-                })
-                .retrieve()
-                .body(new ParameterizedTypeReference<>() {
-                });
-        log.info("Статистика получена: {}", stats);
-        return stats;
+                }, false));
+    }
+
+    @Override
+    public Map<Long, Long> getViews(Collection<Long> eventIds, LocalDateTime start, LocalDateTime end, boolean unique) {
+        if (viewCountCache != null) {
+            return viewCountCache.getViews(eventIds, start, end, unique);
+        }
+        return fetchViews(eventIds, start, end, unique);
+    }
+
+    private Map<Long, Long> fetchViews(Collection<Long> eventIds, LocalDateTime start, LocalDateTime end,
+                                       boolean unique) {
+        Map<Long, Long> views = new HashMap<>();
+        if (eventIds.isEmpty()) {
+            return views;
+        }
+        List<String> uris = new ArrayList<>(eventIds.size());
+        for (Long eventId : eventIds) {
+            views.put(eventId, 0L);
+            uris.add(EVENT_URI_PREFIX + eventId);
+        }
+        List<ViewStatsDto> stats = getStats(start.format(DATE_TIME_FORMATTER), end.format(DATE_TIME_FORMATTER),
+                uris, unique);
+        if (stats == null) {
+            return views;
+        }
+        for (ViewStatsDto stat : stats) {
+            Long eventId = parseEventId(stat.getUri());
+            if (eventId != null && views.containsKey(eventId)) {
+                views.merge(eventId, stat.getHits(), Long::sum);
+            }
+        }
+        return views;
+    }
+
+    private static Long parseEventId(String uri) {
+        if (uri == null || !uri.startsWith(EVENT_URI_PREFIX)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(uri.substring(EVENT_URI_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private HitSpool openSpool(HitSpoolProperties spoolProperties, MeterRegistry meterRegistry) {
+        try {
+            return new HitSpool(spoolProperties, this::saveHits, meterRegistry);
+        } catch (IOException e) {
+            log.error("Не удалось открыть локальный буфер просмотров {}, буфер отключен",
+                    spoolProperties.getDirectory(), e);
+            return null;
+        }
+    }
+
+    private static RestClientException statusError(ClientHttpResponse response) throws IOException {
+        String errorMessage = "Ошибка при обращении к серверу статистики: " +
+                response.getStatusCode() + " " + response.getStatusText();
+        log.error(errorMessage);
+        if (response.getStatusCode().is4xxClientError()) {
+            return new HttpClientErrorException(response.getStatusCode(), "Ошибка запроса: " + errorMessage,
+                    response.getHeaders(), null, null);
+        } else if (response.getStatusCode().is5xxServerError()) {
+            return new HttpServerErrorException(response.getStatusCode(), "Ошибка сервера: " + errorMessage,
+                    response.getHeaders(), null, null);
+        }
+        return new RestClientException(errorMessage);
+    }
+
+    private static URI resolve(URI baseUri, String path) {
+        return UriComponentsBuilder.fromUri(baseUri).path(path).build().toUri();
+    }
+
+    private static URI statsUri(UriBuilder uriBuilder, String start, String end, List<String> uris, Boolean unique) {
+        uriBuilder.path("/stats")
+                .queryParam("start", start)
+                .queryParam("end", end);
+        if (uris != null && !uris.isEmpty()) {
+            for (String uri : uris) {
+                uriBuilder.queryParam("uris", uri);
+            }
+        }
+        if (unique != null) {
+            uriBuilder.queryParam("unique", unique);
+        }
+        return uriBuilder.build();
+    }
+
+    private record StatsQuery(String start, String end, List<String> uris, Boolean unique) {
     }
 }
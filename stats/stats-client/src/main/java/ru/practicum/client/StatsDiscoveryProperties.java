@@ -0,0 +1,18 @@
+package ru.practicum.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats-server.discovery")
+public class StatsDiscoveryProperties {
+
+    private boolean enabled = true;
+    private String serviceId = "stats-server";
+    private int failureThreshold = 3;
+    private Duration ejectFor = Duration.ofSeconds(30);
+}
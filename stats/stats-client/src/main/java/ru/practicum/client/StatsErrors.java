@@ -0,0 +1,59 @@
+package ru.practicum.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+final class StatsErrors {
+
+    private StatsErrors() {
+    }
+
+    /**
+     * Ошибка запроса, которую бессмысленно повторять: 4xx, кроме 408 и 429.
+     */
+    static boolean isPermanent(Throwable error) {
+        return error instanceof HttpClientErrorException e && !isOverload(e);
+    }
+
+    /**
+     * Сервер не справляется с нагрузкой или просит повторить позже: 408, 429 и 5xx.
+     */
+    static boolean isOverload(RestClientResponseException error) {
+        int status = error.getStatusCode().value();
+        return status == HttpStatus.REQUEST_TIMEOUT.value()
+                || status == HttpStatus.TOO_MANY_REQUESTS.value()
+                || error.getStatusCode().is5xxServerError();
+    }
+
+    /**
+     * Значение заголовка Retry-After (в секундах или HTTP-дата) или {@code null}, если его нет.
+     */
+    static Duration retryAfter(Throwable error) {
+        if (!(error instanceof RestClientResponseException response) || response.getResponseHeaders() == null) {
+            return null;
+        }
+        String value = response.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            // не число, пробуем HTTP-дату
+        }
+        try {
+            Duration delay = Duration.between(ZonedDateTime.now(),
+                    ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats-server.http")
+public class StatsHttpProperties {
+
+    private int maxConnections = 100;
+    private int maxConnectionsPerRoute = 50;
+    private Duration connectTimeout = Duration.ofSeconds(1);
+    private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+    private Duration responseTimeout = Duration.ofSeconds(5);
+    private Duration keepAlive = Duration.ofSeconds(30);
+    private Duration evictIdleAfter = Duration.ofSeconds(30);
+}
@@ -0,0 +1,38 @@
+package ru.practicum.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats-server.resilience")
+public class StatsResilienceProperties {
+
+    private Duration readTimeout = Duration.ofMillis(500);
+    private Duration writeTimeout = Duration.ofSeconds(1);
+    private Duration streamTimeout = Duration.ofSeconds(10);
+    private Breaker breaker = new Breaker();
+    private Hedge hedge = new Hedge();
+
+    @Getter
+    @Setter
+    public static class Breaker {
+        private boolean enabled = true;
+        private int windowSize = 50;
+        private int minimumCalls = 20;
+        private int failureRateThreshold = 50;
+        private Duration openFor = Duration.ofSeconds(10);
+        private int halfOpenCalls = 3;
+    }
+
+    @Getter
+    @Setter
+    public static class Hedge {
+        private boolean enabled = false;
+        private Duration minDelay = Duration.ofMillis(20);
+        private Duration maxDelay = Duration.ofMillis(300);
+    }
+}
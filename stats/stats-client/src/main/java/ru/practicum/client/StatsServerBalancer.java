@@ -0,0 +1,161 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@Slf4j
+public class StatsServerBalancer {
+
+    private final URI fallbackUri;
+    private final StatsDiscoveryProperties properties;
+    private final DiscoveryClient discoveryClient;
+    private final ConcurrentMap<URI, InstanceState> instances = new ConcurrentHashMap<>();
+    private final Counter ejectionCounter;
+
+    public StatsServerBalancer(@Value("${stats-server.url}") String statsServerUrl,
+                               StatsDiscoveryProperties properties,
+                               ObjectProvider<DiscoveryClient> discoveryClient,
+                               MeterRegistry meterRegistry) {
+        this.fallbackUri = URI.create(statsServerUrl);
+        this.properties = properties;
+        this.discoveryClient = properties.isEnabled() ? discoveryClient.getIfAvailable() : null;
+        this.ejectionCounter = Counter.builder("stats.client.balancer.ejections")
+                .register(meterRegistry);
+    }
+
+    public Lease acquire() {
+        return acquire(null);
+    }
+
+    public Lease acquire(URI excluded) {
+        List<InstanceState> candidates = candidates();
+        if (excluded != null && candidates.size() > 1) {
+            candidates.removeIf(state -> state.uri.equals(excluded));
+        }
+        InstanceState chosen = leastOutstanding(candidates);
+        chosen.outstanding.incrementAndGet();
+        return new Lease(chosen);
+    }
+
+    int outstanding(URI uri) {
+        InstanceState state = instances.get(uri);
+        return state == null ? 0 : state.outstanding.get();
+    }
+
+    private List<InstanceState> candidates() {
+        List<URI> uris = discoveredUris();
+        if (uris.isEmpty()) {
+            uris = List.of(fallbackUri);
+        }
+        long now = System.nanoTime();
+        List<InstanceState> healthy = new ArrayList<>(uris.size());
+        List<InstanceState> all = new ArrayList<>(uris.size());
+        for (URI uri : uris) {
+            InstanceState state = instances.computeIfAbsent(uri, InstanceState::new);
+            all.add(state);
+            if (!state.isEjected(now)) {
+                healthy.add(state);
+            }
+        }
+        return healthy.isEmpty() ? all : healthy;
+    }
+
+    private List<URI> discoveredUris() {
+        if (discoveryClient == null) {
+            return List.of();
+        }
+        try {
+            List<ServiceInstance> serviceInstances = discoveryClient.getInstances(properties.getServiceId());
+            List<URI> uris = new ArrayList<>(serviceInstances.size());
+            for (ServiceInstance instance : serviceInstances) {
+                uris.add(instance.getUri());
+            }
+            return uris;
+        } catch (RuntimeException e) {
+            log.warn("Не удалось получить экземпляры {} из discovery: {}", properties.getServiceId(), e.getMessage());
+            return List.of();
+        }
+    }
+
+    private static InstanceState leastOutstanding(List<InstanceState> candidates) {
+        InstanceState best = null;
+        int bestOutstanding = Integer.MAX_VALUE;
+        int ties = 0;
+        for (InstanceState candidate : candidates) {
+            int outstanding = candidate.outstanding.get();
+            if (outstanding < bestOutstanding) {
+                best = candidate;
+                bestOutstanding = outstanding;
+                ties = 1;
+            } else if (outstanding == bestOutstanding && ThreadLocalRandom.current().nextInt(++ties) == 0) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private void recordResult(InstanceState state, boolean success) {
+        state.outstanding.decrementAndGet();
+        if (success) {
+            state.failures.set(0);
+            return;
+        }
+        if (state.failures.incrementAndGet() >= properties.getFailureThreshold()) {
+            state.failures.set(0);
+            state.ejectedUntil = System.nanoTime() + properties.getEjectFor().toNanos();
+            ejectionCounter.increment();
+            log.warn("Экземпляр сервера статистики {} исключен из балансировки на {}", state.uri,
+                    properties.getEjectFor());
+        }
+    }
+
+    private static class InstanceState {
+        private final URI uri;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private volatile long ejectedUntil;
+
+        private InstanceState(URI uri) {
+            this.uri = uri;
+        }
+
+        private boolean isEjected(long now) {
+            long until = ejectedUntil;
+            return until != 0 && until - now > 0;
+        }
+    }
+
+    public class Lease {
+        private final InstanceState state;
+        private final AtomicInteger released = new AtomicInteger();
+
+        private Lease(InstanceState state) {
+            this.state = state;
+        }
+
+        public URI uri() {
+            return state.uri;
+        }
+
+        public void release(boolean success) {
+            if (released.compareAndSet(0, 1)) {
+                recordResult(state, success);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.EndpointHitDto;
+import ru.practicum.HitDatagramCodec;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+@Component
+@Slf4j
+public class UdpHitSender {
+
+    private final boolean enabled;
+    private final InetSocketAddress target;
+    private final DatagramChannel channel;
+    private final int capacity;
+    private final Duration maxBatchDelay;
+    private final Queue<EndpointHitDto> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Counter sentCounter;
+    private final Counter overflowCounter;
+    private final Counter invalidCounter;
+    private final Counter sendErrorCounter;
+
+    private volatile boolean running;
+    private Thread senderThread;
+
+    public UdpHitSender(UdpHitSenderProperties properties, MeterRegistry meterRegistry) throws IOException {
+        this.enabled = properties.isEnabled();
+        this.target = enabled ? new InetSocketAddress(properties.getHost(), properties.getPort()) : null;
+        this.channel = enabled ? DatagramChannel.open() : null;
+        this.capacity = properties.getCapacity();
+        this.maxBatchDelay = properties.getMaxBatchDelay();
+        Gauge.builder("stats.client.udp.queued", size, AtomicInteger::get)
+                .description("Количество просмотров, ожидающих отправки по UDP")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("stats.client.udp.sent")
+                .register(meterRegistry);
+        this.overflowCounter = Counter.builder("stats.client.udp.dropped")
+                .tag("reason", "overflow")
+                .register(meterRegistry);
+        this.invalidCounter = Counter.builder("stats.client.udp.dropped")
+                .tag("reason", "invalid")
+                .register(meterRegistry);
+        this.sendErrorCounter = Counter.builder("stats.client.udp.dropped")
+                .tag("reason", "send_error")
+                .register(meterRegistry);
+        if (enabled) {
+            log.info("Просмотры отправляются на сервер статистики по UDP: {}:{}, задержка пакета до {}",
+                    properties.getHost(), properties.getPort(), maxBatchDelay);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void send(EndpointHitDto endpointHitDto) {
+        if (endpointHitDto.getTimestamp() == null) {
+            invalidCounter.increment();
+            log.warn("Просмотр без времени не отправлен по UDP: {}", endpointHitDto);
+            return;
+        }
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            overflowCounter.increment();
+            log.debug("Очередь отправки просмотров по UDP переполнена, просмотр отброшен");
+            return;
+        }
+        queue.offer(endpointHitDto);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        senderThread = new Thread(this::sendLoop, "stats-udp-sender");
+        senderThread.setDaemon(true);
+        senderThread.start();
+    }
+
+    @PreDestroy
+    void close() throws IOException, InterruptedException {
+        if (senderThread != null) {
+            running = false;
+            LockSupport.unpark(senderThread);
+            senderThread.join(1000);
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void sendLoop() {
+        long delayNanos = maxBatchDelay.toNanos();
+        List<EndpointHitDto> batch = new ArrayList<>(HitDatagramCodec.MAX_HITS);
+        while (running || size.get() > 0) {
+            if (running) {
+                LockSupport.parkNanos(this, delayNanos);
+            }
+            int datagramSize = HitDatagramCodec.HEADER_SIZE;
+            EndpointHitDto hit;
+            while ((hit = queue.poll()) != null) {
+                size.decrementAndGet();
+                int hitSize;
+                try {
+                    hitSize = HitDatagramCodec.encodedSize(hit);
+                } catch (IllegalArgumentException e) {
+                    invalidCounter.increment();
+                    log.warn("Просмотр не отправлен по UDP: {}", e.getMessage());
+                    continue;
+                }
+                if (batch.size() == HitDatagramCodec.MAX_HITS
+                        || datagramSize + hitSize > HitDatagramCodec.MAX_DATAGRAM_SIZE) {
+                    sendBatch(batch);
+                    datagramSize = HitDatagramCodec.HEADER_SIZE;
+                }
+                batch.add(hit);
+                datagramSize += hitSize;
+            }
+            sendBatch(batch);
+        }
+    }
+
+    private void sendBatch(List<EndpointHitDto> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            channel.send(ByteBuffer.wrap(HitDatagramCodec.encode(batch)), target);
+            sentCounter.increment(batch.size());
+        } catch (IOException | IllegalArgumentException e) {
+            sendErrorCounter.increment(batch.size());
+            log.warn("Не удалось отправить {} просмотров по UDP: {}", batch.size(), e.getMessage());
+        }
+        batch.clear();
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats-server.udp")
+public class UdpHitSenderProperties {
+
+    private boolean enabled = false;
+    private String host = "localhost";
+    private int port = 9091;
+    private int capacity = 10000;
+    private Duration maxBatchDelay = Duration.ofMillis(20);
+}
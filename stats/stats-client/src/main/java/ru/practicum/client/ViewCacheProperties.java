@@ -0,0 +1,20 @@
+package ru.practicum.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats-server.view-cache")
+public class ViewCacheProperties {
+
+    private boolean enabled = true;
+    private Duration refreshAfter = Duration.ofSeconds(5);
+    private Duration expireAfter = Duration.ofHours(1);
+    private long maximumSize = 100000;
+    private int refreshThreads = 2;
+    private int refreshQueueCapacity = 64;
+}
@@ -0,0 +1,174 @@
+package ru.practicum.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+@Slf4j
+class ViewCountCache implements AutoCloseable {
+
+    private static final Duration CACHEABLE_END_SKEW = Duration.ofMinutes(1);
+
+    private final ViewFetcher fetcher;
+    private final Cache<ViewKey, CachedViews> cache;
+    private final Set<ViewKey> refreshing = ConcurrentHashMap.newKeySet();
+    private final Ticker ticker;
+    private final Executor refreshExecutor;
+    private final long refreshAfterNanos;
+
+    ViewCountCache(ViewCacheProperties properties, ViewFetcher fetcher, MeterRegistry meterRegistry) {
+        this(properties, fetcher, meterRegistry, Ticker.systemTicker(), refreshExecutor(properties));
+    }
+
+    ViewCountCache(ViewCacheProperties properties, ViewFetcher fetcher, MeterRegistry meterRegistry,
+                   Ticker ticker, Executor refreshExecutor) {
+        this.fetcher = fetcher;
+        this.ticker = ticker;
+        this.refreshExecutor = refreshExecutor;
+        this.refreshAfterNanos = properties.getRefreshAfter().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfter())
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "stats.views");
+    }
+
+    @Override
+    public void close() {
+        if (refreshExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    Map<Long, Long> getViews(Collection<Long> eventIds, LocalDateTime start, LocalDateTime end, boolean unique) {
+        LocalDateTime now = LocalDateTime.now();
+        if (Duration.between(end, now).abs().compareTo(CACHEABLE_END_SKEW) > 0) {
+            return fetcher.fetch(eventIds, start, end, unique);
+        }
+        ViewWindow window = new ViewWindow(unique, Duration.between(start, end).truncatedTo(ChronoUnit.HOURS));
+        List<ViewKey> keys = eventIds.stream()
+                .distinct()
+                .map(eventId -> new ViewKey(eventId, window))
+                .toList();
+        Map<ViewKey, CachedViews> cached = new HashMap<>(cache.getAllPresent(keys));
+        long staleBefore = ticker.read() - refreshAfterNanos;
+        List<ViewKey> missing = new ArrayList<>();
+        List<ViewKey> stale = new ArrayList<>();
+        for (ViewKey key : keys) {
+            CachedViews views = cached.get(key);
+            if (views == null) {
+                missing.add(key);
+            } else if (views.loadedAt() <= staleBefore) {
+                stale.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            missing.addAll(stale);
+            try {
+                cached.putAll(load(missing));
+            } catch (RuntimeException e) {
+                log.warn("Сервер статистики недоступен, используются последние известные просмотры: {}",
+                        e.getMessage());
+            }
+        } else if (!stale.isEmpty()) {
+            refreshAsync(stale);
+        }
+        Map<Long, Long> views = new HashMap<>();
+        for (ViewKey key : keys) {
+            CachedViews value = cached.get(key);
+            views.put(key.eventId(), value == null ? 0L : value.views());
+        }
+        return views;
+    }
+
+    private void refreshAsync(List<ViewKey> stale) {
+        List<ViewKey> claimed = stale.stream().filter(refreshing::add).toList();
+        if (claimed.isEmpty()) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(claimed);
+                } catch (RuntimeException e) {
+                    log.debug("Не удалось обновить просмотры {} событий: {}", claimed.size(), e.getMessage());
+                } finally {
+                    claimed.forEach(refreshing::remove);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            claimed.forEach(refreshing::remove);
+            log.debug("Очередь обновления просмотров заполнена, обновление {} событий пропущено", claimed.size());
+        }
+    }
+
+    // обновление блокируется на запросе к серверу статистики, поэтому выполняется в собственном небольшом пуле:
+    // при медленном сервере очередь заполняется и лишние обновления отбрасываются, а не копятся
+    private static ExecutorService refreshExecutor(ViewCacheProperties properties) {
+        AtomicInteger threads = new AtomicInteger();
+        return new ThreadPoolExecutor(properties.getRefreshThreads(), properties.getRefreshThreads(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getRefreshQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "stats-view-refresh-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private Map<ViewKey, CachedViews> load(Collection<ViewKey> keys) {
+        LocalDateTime end = LocalDateTime.now();
+        Map<ViewKey, CachedViews> loaded = new HashMap<>();
+        Map<ViewWindow, List<ViewKey>> groups = keys.stream()
+                .collect(Collectors.groupingBy(ViewKey::window));
+        for (Map.Entry<ViewWindow, List<ViewKey>> group : groups.entrySet()) {
+            ViewWindow window = group.getKey();
+            Map<Long, Long> views = fetcher.fetch(group.getValue().stream().map(ViewKey::eventId).toList(),
+                    end.minus(window.lookback()), end, window.unique());
+            long loadedAt = ticker.read();
+            for (ViewKey key : group.getValue()) {
+                loaded.put(key, new CachedViews(views.getOrDefault(key.eventId(), 0L), loadedAt));
+            }
+        }
+        cache.putAll(loaded);
+        return loaded;
+    }
+
+    @FunctionalInterface
+    interface ViewFetcher {
+        Map<Long, Long> fetch(Collection<Long> eventIds, LocalDateTime start, LocalDateTime end, boolean unique);
+    }
+
+    private record ViewWindow(boolean unique, Duration lookback) {
+    }
+
+    private record ViewKey(Long eventId, ViewWindow window) {
+    }
+
+    private record CachedViews(long views, long loadedAt) {
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.ViewStatsDto;
+import ru.practicum.client.StatsClientImpl;
+import ru.practicum.client.StubStatsServer;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Всплеск одинаковых запросов getStats от многих потоков (окна отличаются концом в пределах секунд)
+ * с single-flight и без него. Сервер статистики - встроенный HTTP-заглушка с задержкой ответа; после
+ * каждой итерации печатается число вызовов getStats и число запросов, дошедших до сервера.
+ * Запуск: {@code mvn -pl stats/stats-client test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args=SingleFlightBurstBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+@State(Scope.Benchmark)
+public class SingleFlightBurstBenchmark {
+
+    private static final List<String> URIS = List.of("/events/1");
+
+    @Param({"true", "false"})
+    private boolean singleFlight;
+
+    @Param({"20"})
+    private int serverLatencyMillis;
+
+    private final LongAdder calls = new LongAdder();
+    private StubStatsServer server;
+    private StatsClientImpl client;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new StubStatsServer();
+        server.setLatency(Duration.ofMillis(serverLatencyMillis));
+        client = server.newClient(singleFlight, new SimpleMeterRegistry());
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        calls.reset();
+        server.resetRequests();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportBackendLoad() {
+        long total = calls.sum();
+        System.out.printf("%nвызовов getStats %d, запросов к серверу %d (%.1f%%)%n",
+                total, server.statsRequests(), total == 0 ? 0.0 : server.statsRequests() * 100.0 / total);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> burst() {
+        calls.increment();
+        LocalDateTime end = LocalDateTime.now().withNano(0);
+        return client.getStats(end.minusHours(1).format(StatsClientImpl.DATE_TIME_FORMATTER),
+                end.format(StatsClientImpl.DATE_TIME_FORMATTER), URIS, false);
+    }
+}
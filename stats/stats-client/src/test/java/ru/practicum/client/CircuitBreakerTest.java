@@ -0,0 +1,94 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private static final Duration OPEN_FOR = Duration.ofSeconds(10);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final CircuitBreaker breaker;
+
+    CircuitBreakerTest() {
+        StatsResilienceProperties.Breaker properties = new StatsResilienceProperties.Breaker();
+        properties.setWindowSize(4);
+        properties.setMinimumCalls(4);
+        properties.setFailureRateThreshold(50);
+        properties.setOpenFor(OPEN_FOR);
+        properties.setHalfOpenCalls(2);
+        breaker = new CircuitBreaker(properties, new SimpleMeterRegistry(), nanos::get);
+    }
+
+    @Test
+    void opensWhenFailureRateReachesThresholdAfterMinimumCalls() {
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onSuccess();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void staysClosedBelowThreshold() {
+        for (int i = 0; i < 2; i++) {
+            breaker.onSuccess();
+            breaker.onSuccess();
+            breaker.onSuccess();
+            breaker.onFailure();
+        }
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void halfOpenPermitsLimitedTrialCallsAndClosesAfterTheirSuccess() {
+        open();
+        nanos.addAndGet(OPEN_FOR.toNanos());
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onSuccess();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.onSuccess();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void reopensOnTrialFailure() {
+        open();
+        nanos.addAndGet(OPEN_FOR.toNanos());
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        nanos.addAndGet(OPEN_FOR.toNanos() - 1);
+        assertThat(breaker.tryAcquire()).isFalse();
+        nanos.incrementAndGet();
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure();
+        }
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import ru.practicum.EndpointHitDto;
+import ru.practicum.HitBatchResultDto;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HitPublisherTest {
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<EndpointHitDto> delivered = new CopyOnWriteArrayList<>();
+    private volatile RuntimeException failure;
+    private HitSpool spool;
+    private HitPublisher publisher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (publisher != null) {
+            publisher.stop();
+        }
+        if (spool != null) {
+            spool.close();
+        }
+    }
+
+    @Test
+    void spoolsBatchWhenServerUnavailableAndReplaysOnRecovery() throws Exception {
+        start();
+        failure = new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+
+        publishAll(3);
+        awaitTrue(() -> spooled() == 3);
+        assertThat(delivered).isEmpty();
+
+        failure = null;
+        spool.replay();
+
+        assertThat(delivered).extracting(EndpointHitDto::getUri)
+                .containsExactly("/events/0", "/events/1", "/events/2");
+    }
+
+    @Test
+    void honoursRetryAfterBeforeReplaying() throws Exception {
+        start();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "60");
+        failure = HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                headers, null, null);
+
+        publishAll(2);
+        awaitTrue(() -> spooled() == 2);
+        failure = null;
+        spool.replay();
+
+        assertThat(spool.isBackingOff()).isTrue();
+        assertThat(delivered).isEmpty();
+    }
+
+    @Test
+    void dropsBatchRejectedAsInvalidWithoutSpooling() throws Exception {
+        start();
+        failure = HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Bad Request",
+                HttpHeaders.EMPTY, null, null);
+
+        publishAll(2);
+        awaitTrue(() -> meterRegistry.counter("stats.client.publisher.dropped", "reason", "rejected").count() == 2);
+
+        assertThat(spooled()).isZero();
+    }
+
+    private void start() throws IOException {
+        HitSpoolProperties spoolProperties = new HitSpoolProperties();
+        spoolProperties.setDirectory(directory.toString());
+        spoolProperties.setReplayInterval(Duration.ofHours(1));
+        spoolProperties.setReplayRate(Integer.MAX_VALUE);
+        spool = new HitSpool(spoolProperties, this::send, meterRegistry);
+
+        HitPublisherProperties publisherProperties = new HitPublisherProperties();
+        publisherProperties.setFlushInterval(Duration.ofMillis(10));
+        publisher = new HitPublisher(publisherProperties, this::send, spool, meterRegistry);
+        publisher.start();
+    }
+
+    private HitBatchResultDto send(List<EndpointHitDto> batch) {
+        RuntimeException error = failure;
+        if (error != null) {
+            throw error;
+        }
+        delivered.addAll(batch);
+        return null;
+    }
+
+    private void publishAll(int count) {
+        for (int i = 0; i < count; i++) {
+            assertThat(publisher.publish(new EndpointHitDto("ewm-main-service", "/events/" + i, "10.0.0.1",
+                    LocalDateTime.now().withNano(0)))).isTrue();
+        }
+    }
+
+    private double spooled() {
+        return meterRegistry.counter("stats.client.spool.appended").count();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline).as("условие не выполнено за 5 секунд").isNegative();
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.EndpointHitDto;
+import ru.practicum.HitBatchResultDto;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HitSpoolTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<EndpointHitDto> sent = new ArrayList<>();
+    private final HitSpoolProperties properties = new HitSpoolProperties();
+    private SimpleMeterRegistry meterRegistry;
+    private HitSpool spool;
+
+    HitSpoolTest() {
+        properties.setSegmentSize(DataSize.ofKilobytes(4));
+        properties.setReplayInterval(Duration.ofHours(1));
+        properties.setReplayRate(Integer.MAX_VALUE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (spool != null) {
+            spool.close();
+        }
+    }
+
+    @Test
+    void replaysAppendedHitsInOrder() throws IOException {
+        open();
+
+        assertThat(spool.appendAll(List.of(hit(1), hit(2), hit(3)))).isEqualTo(3);
+        spool.replay();
+
+        assertThat(sent).extracting(EndpointHitDto::getUri).containsExactly("/events/1", "/events/2", "/events/3");
+        assertThat(sent.get(0).getApp()).isEqualTo("ewm-main-service");
+        assertThat(sent.get(0).getIp()).isEqualTo("10.0.0.1");
+        spool.replay();
+        assertThat(sent).hasSize(3);
+    }
+
+    @Test
+    void checkpointSurvivesReopen() throws IOException {
+        open();
+        spool.appendAll(List.of(hit(1), hit(2)));
+        spool.replay();
+        spool.append(hit(3));
+        reopen();
+
+        spool.replay();
+
+        assertThat(sent).extracting(EndpointHitDto::getUri).containsExactly("/events/1", "/events/2", "/events/3");
+        reopen();
+        spool.replay();
+        assertThat(sent).hasSize(3);
+    }
+
+    @Test
+    void skipsTornTailOnRecover() throws IOException {
+        open();
+        spool.appendAll(List.of(hit(1), hit(2)));
+        spool.close();
+        int end = recordEnd(segments().get(0), 2);
+        try (RandomAccessFile file = new RandomAccessFile(segments().get(0).toFile(), "rw")) {
+            file.seek(end);
+            file.writeInt(64);
+            file.writeInt(0x12345678);
+            file.write(new byte[]{1, 2, 3});
+        }
+
+        open();
+        spool.replay();
+
+        assertThat(sent).extracting(EndpointHitDto::getUri).containsExactly("/events/1", "/events/2");
+        assertThat(meterRegistry.counter("stats.client.spool.corrupt").count()).isEqualTo(1);
+        spool.append(hit(3));
+        spool.replay();
+        assertThat(sent).extracting(EndpointHitDto::getUri).containsExactly("/events/1", "/events/2", "/events/3");
+    }
+
+    @Test
+    void dropsRecordsFromCrcMismatchOnRecover() throws IOException {
+        open();
+        spool.appendAll(List.of(hit(1), hit(2), hit(3)));
+        spool.close();
+        int secondPayload = recordEnd(segments().get(0), 1) + 2 * Integer.BYTES;
+        try (RandomAccessFile file = new RandomAccessFile(segments().get(0).toFile(), "rw")) {
+            file.seek(secondPayload);
+            int original = file.read();
+            file.seek(secondPayload);
+            file.write(original ^ 0xFF);
+        }
+
+        open();
+        spool.replay();
+
+        assertThat(sent).extracting(EndpointHitDto::getUri).containsExactly("/events/1");
+        assertThat(meterRegistry.counter("stats.client.spool.corrupt").count()).isEqualTo(1);
+    }
+
+    @Test
+    void rollsOverSegmentsAndDeletesReplayedOnes() throws IOException {
+        properties.setSegmentSize(DataSize.ofBytes(256));
+        open();
+        List<EndpointHitDto> hits = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            hits.add(hit(i));
+        }
+
+        assertThat(spool.appendAll(hits)).isEqualTo(20);
+        assertThat(segments()).hasSizeGreaterThan(1);
+        spool.replay();
+
+        assertThat(sent).extracting(EndpointHitDto::getUri)
+                .containsExactlyElementsOf(hits.stream().map(EndpointHitDto::getUri).toList());
+        assertThat(segments()).hasSize(1);
+    }
+
+    @Test
+    void replayConcurrentWithAppendsAndRollsLosesNothing() throws Exception {
+        properties.setSegmentSize(DataSize.ofBytes(256));
+        properties.setMaxSegments(10_000);
+        open();
+        List<EndpointHitDto> hits = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            hits.add(hit(i));
+        }
+        AtomicBoolean writing = new AtomicBoolean(true);
+        Thread replayer = new Thread(() -> {
+            while (writing.get()) {
+                spool.replay();
+            }
+        });
+        replayer.start();
+
+        for (EndpointHitDto hit : hits) {
+            assertThat(spool.append(hit)).isTrue();
+        }
+        writing.set(false);
+        replayer.join();
+        spool.replay();
+
+        assertThat(sent).extracting(EndpointHitDto::getUri)
+                .containsExactlyElementsOf(hits.stream().map(EndpointHitDto::getUri).toList());
+        assertThat(segments()).hasSize(1);
+    }
+
+    @Test
+    void dropsHitsWhenSegmentLimitReached() throws IOException {
+        properties.setSegmentSize(DataSize.ofBytes(256));
+        properties.setMaxSegments(2);
+        open();
+
+        int appended = 0;
+        for (int i = 0; i < 50; i++) {
+            if (spool.append(hit(i))) {
+                appended++;
+            }
+        }
+
+        assertThat(appended).isLessThan(50);
+        assertThat(segments()).hasSize(2);
+        assertThat(meterRegistry.counter("stats.client.spool.dropped").count()).isEqualTo(50 - appended);
+    }
+
+    private void open() throws IOException {
+        properties.setDirectory(directory.toString());
+        meterRegistry = new SimpleMeterRegistry();
+        spool = new HitSpool(properties, this::send, meterRegistry);
+    }
+
+    private void reopen() throws IOException {
+        spool.close();
+        open();
+    }
+
+    private HitBatchResultDto send(List<EndpointHitDto> batch) {
+        sent.addAll(batch);
+        return null;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("segment-")).sorted().toList();
+        }
+    }
+
+    private static int recordEnd(Path segment, int records) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "r")) {
+            int position = 0;
+            for (int i = 0; i < records; i++) {
+                file.seek(position);
+                position += 2 * Integer.BYTES + file.readInt();
+            }
+            return position;
+        }
+    }
+
+    private static EndpointHitDto hit(int eventId) {
+        return new EndpointHitDto("ewm-main-service", "/events/" + eventId, "10.0.0.1",
+                LocalDateTime.now().withNano(0));
+    }
+}
@@ -0,0 +1,153 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import ru.practicum.ViewStatsDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int THREADS = 16;
+    private static final String START = "2026-01-01 09:00:00";
+    private static final List<String> URIS = List.of("/events/1");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void followersShareLeaderResult() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>("test", meterRegistry);
+        CountDownLatch gate = new CountDownLatch(1);
+        AtomicInteger upstream = new AtomicInteger();
+
+        List<Future<Integer>> results = submitAll(() -> flight.execute("key", () -> {
+            upstream.incrementAndGet();
+            await(gate);
+            return 42;
+        }));
+        awaitTrue(() -> shared("test") == THREADS - 1);
+        gate.countDown();
+
+        for (Future<Integer> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+        }
+        assertThat(upstream).hasValue(1);
+    }
+
+    @Test
+    void followersReceiveLeaderException() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>("test", meterRegistry);
+        CountDownLatch gate = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("сервер недоступен");
+
+        List<Future<Integer>> results = submitAll(() -> flight.execute("key", () -> {
+            await(gate);
+            throw failure;
+        }));
+        awaitTrue(() -> shared("test") == THREADS - 1);
+        gate.countDown();
+
+        for (Future<Integer> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause().isSameAs(failure);
+        }
+        assertThat(flight.execute("key", () -> 7)).isEqualTo(7);
+    }
+
+    @Test
+    void concurrentGetStatsWithinOneWindowMakeOneHttpCall() throws Exception {
+        try (StubStatsServer server = new StubStatsServer()) {
+            StatsClientImpl client = server.newClient(true, meterRegistry);
+            server.hold();
+            AtomicInteger second = new AtomicInteger();
+
+            List<Future<List<ViewStatsDto>>> results = submitAll(() -> client.getStats(START,
+                    "2026-01-01 10:00:0" + (second.getAndIncrement() % 4 + 1), URIS, false));
+            awaitTrue(() -> shared("stats") == THREADS - 1);
+            server.release();
+
+            for (Future<List<ViewStatsDto>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).extracting(ViewStatsDto::getHits).containsExactly(5L);
+            }
+            assertThat(server.statsRequests()).isEqualTo(1);
+            client.stop();
+        }
+    }
+
+    @Test
+    void concurrentGetStatsShareServerError() throws Exception {
+        try (StubStatsServer server = new StubStatsServer()) {
+            StatsClientImpl client = server.newClient(true, meterRegistry);
+            server.hold();
+            server.failWith(500);
+
+            List<Future<List<ViewStatsDto>>> results = submitAll(() -> client.getStats(START,
+                    "2026-01-01 10:00:03", URIS, false));
+            awaitTrue(() -> shared("stats") == THREADS - 1);
+            server.release();
+
+            for (Future<List<ViewStatsDto>> result : results) {
+                assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                        .isInstanceOf(ExecutionException.class)
+                        .cause().isInstanceOf(HttpServerErrorException.class);
+            }
+            assertThat(server.statsRequests()).isEqualTo(1);
+            client.stop();
+        }
+    }
+
+    private <T> List<Future<T>> submitAll(Callable<T> task) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        return futures;
+    }
+
+    private double shared(String call) {
+        return meterRegistry.counter("stats.client.single_flight", "call", call, "result", "shared").count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline).as("условие не выполнено за 5 секунд").isNegative();
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientException;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StatsCallExecutorTest {
+
+    private final StatsResilienceProperties properties = new StatsResilienceProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CountDownLatch interrupted = new CountDownLatch(1);
+    private StatsServerBalancer balancer;
+    private CircuitBreaker breaker;
+    private StatsCallExecutor executor;
+
+    StatsCallExecutorTest() {
+        properties.setReadTimeout(Duration.ofSeconds(2));
+        properties.getBreaker().setWindowSize(4);
+        properties.getBreaker().setMinimumCalls(4);
+        properties.getBreaker().setFailureRateThreshold(50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.close();
+        }
+    }
+
+    @Test
+    void hedgeWinsAndCancelsSlowPrimary() {
+        enableHedge(Duration.ofMillis(20));
+        start();
+
+        String result = executor.execute(StatsCallExecutor.Operation.READ,
+                uri -> calls.getAndIncrement() == 0 ? blockUntilInterrupted() : "hedge");
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(calls).hasValue(2);
+        assertThat(awaitInterrupted()).isTrue();
+    }
+
+    @Test
+    void hedgesImmediatelyWhenPrimaryIsOverloaded() {
+        enableHedge(Duration.ofSeconds(1));
+        start();
+
+        long started = System.nanoTime();
+        String result = executor.execute(StatsCallExecutor.Operation.READ, uri -> {
+            if (calls.getAndIncrement() == 0) {
+                throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            return "hedge";
+        });
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofMillis(500));
+    }
+
+    @Test
+    void attemptIsBoundedByCallDeadlineAndCancelledOnTimeout() {
+        properties.setReadTimeout(Duration.ofMillis(100));
+        start();
+        AtomicReference<Timeout> responseTimeout = new AtomicReference<>();
+
+        assertThatThrownBy(() -> executor.execute(StatsCallExecutor.Operation.READ, uri -> {
+            responseTimeout.set(StatsCallAttempt.current().bound(Timeout.ofSeconds(30)));
+            return blockUntilInterrupted();
+        }))
+                .isInstanceOf(RestClientException.class)
+                .hasMessageContaining("Превышено время ожидания");
+
+        assertThat(responseTimeout.get().toMilliseconds()).isBetween(1L, 100L);
+        assertThat(awaitInterrupted()).isTrue();
+    }
+
+    @Test
+    void streamIsNotHedged() {
+        enableHedge(Duration.ofMillis(10));
+        start();
+
+        Stream<String> rows = executor.execute(StatsCallExecutor.Operation.STREAM, uri -> {
+            calls.incrementAndGet();
+            sleepUninterruptibly(Duration.ofMillis(100));
+            return Stream.of("row");
+        });
+
+        assertThat(rows).containsExactly("row");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void closesStreamThatArrivesAfterDeadline() throws InterruptedException {
+        properties.setStreamTimeout(Duration.ofMillis(50));
+        start();
+        CountDownLatch closed = new CountDownLatch(1);
+
+        assertThatThrownBy(() -> executor.execute(StatsCallExecutor.Operation.STREAM, uri -> {
+            sleepUninterruptibly(Duration.ofMillis(200));
+            return Stream.of("row").onClose(closed::countDown);
+        }))
+                .isInstanceOf(RestClientException.class)
+                .hasMessageContaining("Превышено время ожидания");
+
+        assertThat(closed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void streamHoldsLeaseUntilClosed() {
+        start();
+        URI uri = URI.create("http://localhost:9090");
+
+        Stream<String> rows = executor.execute(StatsCallExecutor.Operation.STREAM, u -> Stream.of("row"));
+
+        assertThat(balancer.outstanding(uri)).isEqualTo(1);
+        rows.close();
+        assertThat(balancer.outstanding(uri)).isZero();
+    }
+
+    @Test
+    void streamResponseTimeoutIsNotBoundedByDeadline() {
+        properties.setStreamTimeout(Duration.ofMillis(100));
+        start();
+        AtomicReference<Timeout> responseTimeout = new AtomicReference<>();
+
+        executor.execute(StatsCallExecutor.Operation.STREAM, uri -> {
+            responseTimeout.set(StatsCallAttempt.current().responseTimeout(Timeout.ofSeconds(30)));
+            return Stream.of("row");
+        }).close();
+
+        assertThat(responseTimeout.get().toSeconds()).isEqualTo(30);
+    }
+
+    @Test
+    void expiredDeadlineBoundsTimeoutToMinimum() {
+        StatsCallAttempt attempt = new StatsCallAttempt(System.nanoTime() - 1);
+
+        assertThat(attempt.bound(Timeout.ofSeconds(30)).toMilliseconds()).isEqualTo(1);
+    }
+
+    @Test
+    void tooManyRequestsOpensBreaker() {
+        start();
+        Function<URI, String> overloaded = uri -> {
+            calls.incrementAndGet();
+            throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                    HttpHeaders.EMPTY, null, null);
+        };
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> executor.execute(StatsCallExecutor.Operation.READ, overloaded))
+                    .isInstanceOf(HttpClientErrorException.TooManyRequests.class);
+        }
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> executor.execute(StatsCallExecutor.Operation.READ, overloaded))
+                .isInstanceOf(RestClientException.class)
+                .hasMessageContaining("отклонен без отправки");
+        assertThat(calls).hasValue(4);
+    }
+
+    @Test
+    void badRequestKeepsBreakerClosed() {
+        start();
+        for (int i = 0; i < 8; i++) {
+            assertThatThrownBy(() -> executor.execute(StatsCallExecutor.Operation.READ, uri -> {
+                throw HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Bad Request",
+                        HttpHeaders.EMPTY, null, null);
+            })).isInstanceOf(HttpClientErrorException.BadRequest.class);
+        }
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private void enableHedge(Duration delay) {
+        properties.getHedge().setEnabled(true);
+        properties.getHedge().setMinDelay(delay);
+        properties.getHedge().setMaxDelay(delay);
+    }
+
+    private void start() {
+        StatsDiscoveryProperties discovery = new StatsDiscoveryProperties();
+        discovery.setEnabled(false);
+        balancer = new StatsServerBalancer("http://localhost:9090", discovery, null,
+                meterRegistry);
+        breaker = new CircuitBreaker(properties.getBreaker(), meterRegistry);
+        executor = new StatsCallExecutor(balancer, properties, breaker, meterRegistry);
+    }
+
+    private String blockUntilInterrupted() {
+        try {
+            TimeUnit.SECONDS.sleep(30);
+            return "slow";
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+            throw new RestClientException("прервано", e);
+        }
+    }
+
+    private static void sleepUninterruptibly(Duration duration) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        boolean interrupted = false;
+        while (System.nanoTime() < deadline) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(deadline - System.nanoTime());
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean awaitInterrupted() {
+        try {
+            return interrupted.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Встроенный HTTP-сервер, отвечающий на /stats фиксированной статистикой: считает запросы, умеет
+ * задерживать ответы до {@link #release()} и отвечать ошибкой.
+ */
+public class StubStatsServer implements AutoCloseable {
+
+    private static final byte[] BODY = "[{\"app\":\"ewm-main-service\",\"uri\":\"/events/1\",\"hits\":5}]"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger statsRequests = new AtomicInteger();
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+    private volatile Duration latency = Duration.ZERO;
+    private volatile int status = 200;
+
+    public StubStatsServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/stats", this::handle);
+        server.start();
+    }
+
+    public StatsClientImpl newClient(boolean singleFlight, MeterRegistry meterRegistry) throws IOException {
+        StatsDiscoveryProperties discovery = new StatsDiscoveryProperties();
+        discovery.setEnabled(false);
+        StatsServerBalancer balancer = new StatsServerBalancer(
+                "http://localhost:" + server.getAddress().getPort(), discovery, null, meterRegistry);
+        HitPublisherProperties publisher = new HitPublisherProperties();
+        publisher.setEnabled(false);
+        ViewCacheProperties viewCache = new ViewCacheProperties();
+        viewCache.setEnabled(false);
+        SingleFlightProperties singleFlightProperties = new SingleFlightProperties();
+        singleFlightProperties.setEnabled(singleFlight);
+        StatsResilienceProperties resilience = new StatsResilienceProperties();
+        resilience.setReadTimeout(Duration.ofSeconds(5));
+        return new StatsClientImpl(balancer, new StatsHttpProperties(), new ObjectMapper(),
+                new UdpHitSender(new UdpHitSenderProperties(), meterRegistry), publisher, viewCache,
+                singleFlightProperties, resilience, new HitSpoolProperties(), meterRegistry);
+    }
+
+    public void hold() {
+        gate = new CountDownLatch(1);
+    }
+
+    public void release() {
+        gate.countDown();
+    }
+
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    public void failWith(int status) {
+        this.status = status;
+    }
+
+    public int statsRequests() {
+        return statsRequests.get();
+    }
+
+    public void resetRequests() {
+        statsRequests.set(0);
+    }
+
+    @Override
+    public void close() {
+        release();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        statsRequests.incrementAndGet();
+        try {
+            gate.await(10, TimeUnit.SECONDS);
+            if (!latency.isZero()) {
+                TimeUnit.NANOSECONDS.sleep(latency.toNanos());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (status != 200) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, BODY.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(BODY);
+        }
+    }
+}
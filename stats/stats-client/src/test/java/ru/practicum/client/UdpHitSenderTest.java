@@ -0,0 +1,38 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.EndpointHitDto;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UdpHitSenderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void countsHitsDroppedOnOverflowAndWithoutTimestamp() throws IOException {
+        UdpHitSenderProperties properties = new UdpHitSenderProperties();
+        properties.setCapacity(1);
+        UdpHitSender sender = new UdpHitSender(properties, meterRegistry);
+
+        sender.send(hit(LocalDateTime.now()));
+        sender.send(hit(LocalDateTime.now()));
+        sender.send(hit(null));
+
+        assertThat(dropped("overflow")).isEqualTo(1);
+        assertThat(dropped("invalid")).isEqualTo(1);
+        assertThat(meterRegistry.get("stats.client.udp.queued").gauge().value()).isEqualTo(1);
+    }
+
+    private double dropped(String reason) {
+        return meterRegistry.get("stats.client.udp.dropped").tag("reason", reason).counter().count();
+    }
+
+    private static EndpointHitDto hit(LocalDateTime timestamp) {
+        return new EndpointHitDto("ewm-main-service", "/events/1", "10.0.0.1", timestamp);
+    }
+}
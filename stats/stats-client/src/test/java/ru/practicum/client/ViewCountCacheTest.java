@@ -0,0 +1,107 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ViewCountCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final List<Collection<Long>> fetches = new ArrayList<>();
+    private final AtomicLong hits = new AtomicLong(10);
+    private final List<Runnable> refreshes = new ArrayList<>();
+    private boolean failing;
+    private final ViewCountCache cache;
+
+    ViewCountCacheTest() {
+        ViewCacheProperties properties = new ViewCacheProperties();
+        properties.setRefreshAfter(Duration.ofSeconds(5));
+        cache = new ViewCountCache(properties, this::fetch, new SimpleMeterRegistry(), nanos::get, refreshes::add);
+    }
+
+    @Test
+    void refreshesStalePageInOneFetch() {
+        LocalDateTime now = LocalDateTime.now();
+        assertThat(cache.getViews(List.of(1L, 2L, 3L), now.minusHours(1), now, false))
+                .containsEntry(1L, 10L).containsEntry(3L, 10L);
+        assertThat(fetches).hasSize(1);
+
+        hits.set(20);
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+        assertThat(cache.getViews(List.of(1L, 2L, 3L), now.minusHours(1), now, false))
+                .containsEntry(1L, 10L);
+        assertThat(cache.getViews(List.of(1L, 2L, 3L), now.minusHours(1), now, false))
+                .containsEntry(1L, 10L);
+        assertThat(refreshes).hasSize(1);
+
+        refreshes.get(0).run();
+        assertThat(fetches).hasSize(2);
+        assertThat(fetches.get(1)).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(cache.getViews(List.of(1L, 2L, 3L), now.minusHours(1), now, false))
+                .containsEntry(2L, 20L);
+        assertThat(fetches).hasSize(2);
+    }
+
+    @Test
+    void loadsMissingAndStaleKeysTogether() {
+        LocalDateTime now = LocalDateTime.now();
+        cache.getViews(List.of(1L), now.minusHours(1), now, false);
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        cache.getViews(List.of(1L, 2L), now.minusHours(1), now, false);
+
+        assertThat(fetches).hasSize(2);
+        assertThat(fetches.get(1)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(refreshes).isEmpty();
+    }
+
+    @Test
+    void servesLastKnownViewsWhenServerIsDown() {
+        LocalDateTime now = LocalDateTime.now();
+        cache.getViews(List.of(1L), now.minusHours(1), now, false);
+        failing = true;
+
+        assertThat(cache.getViews(List.of(1L, 2L), now.minusHours(1), now, false))
+                .containsEntry(1L, 10L)
+                .containsEntry(2L, 0L);
+    }
+
+    @Test
+    void rejectedRefreshIsRetriedOnNextRead() {
+        ViewCacheProperties properties = new ViewCacheProperties();
+        AtomicLong offered = new AtomicLong();
+        ViewCountCache rejecting = new ViewCountCache(properties, this::fetch, new SimpleMeterRegistry(), nanos::get,
+                task -> {
+                    offered.incrementAndGet();
+                    throw new RejectedExecutionException("queue full");
+                });
+        LocalDateTime now = LocalDateTime.now();
+        rejecting.getViews(List.of(1L), now.minusHours(1), now, false);
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        assertThat(rejecting.getViews(List.of(1L), now.minusHours(1), now, false)).containsEntry(1L, 10L);
+        assertThat(rejecting.getViews(List.of(1L), now.minusHours(1), now, false)).containsEntry(1L, 10L);
+        assertThat(offered).hasValue(2);
+    }
+
+    private Map<Long, Long> fetch(Collection<Long> eventIds, LocalDateTime start, LocalDateTime end, boolean unique) {
+        fetches.add(List.copyOf(eventIds));
+        if (failing) {
+            throw new IllegalStateException("stats-server down");
+        }
+        Map<Long, Long> views = new HashMap<>();
+        eventIds.forEach(id -> views.put(id, hits.get()));
+        return views;
+    }
+}
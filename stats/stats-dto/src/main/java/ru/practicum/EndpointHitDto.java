@@ -25,7 +25,7 @@ public class EndpointHitDto {
     private String uri;
 
     @NotBlank(message = "Поле ip не может быть пустым")
-    @Size(min = 7, max = 16, message = "Поле ip должно быть от 7 до 16 символов")
+    @Size(min = 2, max = 45, message = "Поле ip должно быть от 2 до 45 символов")
     private String ip;
 
     @NotNull(message = "Поле timestamp не может быть пустым")
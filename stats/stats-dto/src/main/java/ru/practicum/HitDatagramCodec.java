@@ -0,0 +1,113 @@
+package ru.practicum;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class HitDatagramCodec {
+
+    public static final int MAX_DATAGRAM_SIZE = 1472;
+    public static final int HEADER_SIZE = Short.BYTES + 2;
+    public static final int MAX_HITS = 255;
+
+    private static final short MAGIC = 0x4854;
+    private static final byte VERSION = 1;
+    private static final int MAX_FIELD_LENGTH = 255;
+
+    private HitDatagramCodec() {
+    }
+
+    public static byte[] encode(EndpointHitDto hit) {
+        return encode(List.of(hit));
+    }
+
+    public static byte[] encode(List<EndpointHitDto> hits) {
+        if (hits.isEmpty() || hits.size() > MAX_HITS) {
+            throw new IllegalArgumentException("В датаграмме может быть от 1 до 255 просмотров");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_DATAGRAM_SIZE);
+        buffer.putShort(MAGIC).put(VERSION).put((byte) hits.size());
+        try {
+            for (EndpointHitDto hit : hits) {
+                checkTimestamp(hit);
+                buffer.putLong(hit.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+                putString(buffer, hit.getApp());
+                putString(buffer, hit.getUri());
+                putString(buffer, hit.getIp());
+            }
+        } catch (BufferOverflowException e) {
+            throw new IllegalArgumentException("Просмотры не помещаются в одну датаграмму", e);
+        }
+        byte[] datagram = new byte[buffer.position()];
+        buffer.flip().get(datagram);
+        return datagram;
+    }
+
+    public static int encodedSize(EndpointHitDto hit) {
+        checkTimestamp(hit);
+        return Long.BYTES + fieldSize(hit.getApp()) + fieldSize(hit.getUri()) + fieldSize(hit.getIp());
+    }
+
+    public static List<EndpointHitDto> decode(ByteBuffer buffer) {
+        try {
+            if (buffer.getShort() != MAGIC) {
+                throw new IllegalArgumentException("Неизвестный формат датаграммы");
+            }
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Неподдерживаемая версия датаграммы: " + version);
+            }
+            int count = Byte.toUnsignedInt(buffer.get());
+            List<EndpointHitDto> hits = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                LocalDateTime timestamp = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+                String app = getString(buffer);
+                String uri = getString(buffer);
+                String ip = getString(buffer);
+                hits.add(new EndpointHitDto(app, uri, ip, timestamp));
+            }
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Лишние байты в конце датаграммы");
+            }
+            return hits;
+        } catch (BufferUnderflowException | DateTimeException e) {
+            throw new IllegalArgumentException("Датаграмма повреждена", e);
+        }
+    }
+
+    private static void checkTimestamp(EndpointHitDto hit) {
+        if (hit.getTimestamp() == null) {
+            throw new IllegalArgumentException("Не указано время просмотра");
+        }
+    }
+
+    private static int fieldSize(String value) {
+        return 1 + toBytes(value).length;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = toBytes(value);
+        buffer.put((byte) bytes.length).put(bytes);
+    }
+
+    private static byte[] toBytes(String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException("Поле датаграммы длиннее " + MAX_FIELD_LENGTH + " байт");
+        }
+        return bytes;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = Byte.toUnsignedInt(buffer.get());
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HitRejectDto {
+
+    private Integer index;
+    private String reason;
+}
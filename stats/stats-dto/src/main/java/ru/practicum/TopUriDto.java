@@ -0,0 +1,16 @@
+package ru.practicum;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TopUriDto {
+
+    private String app;
+    private String uri;
+    private Long hits;
+    private Long maxError;
+}
@@ -0,0 +1,14 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats.ingest")
+public class IngestProperties {
+
+    private int batchSize = 500;
+    private int maxHitsPerRequest = 10_000;
+}
@@ -0,0 +1,21 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import ru.practicum.model.PartitionInterval;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats.partitions")
+public class PartitionProperties {
+
+    private boolean enabled = true;
+    private PartitionInterval interval = PartitionInterval.DAY;
+    private int premake = 7;
+    private Duration retention = Duration.ofDays(400);
+    private boolean dropExpired = false;
+    private Duration checkInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,18 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats.recent-hits")
+public class RecentHitsProperties {
+
+    private boolean enabled = false;
+    private Duration window = Duration.ofHours(6);
+    private DataSize memoryBudget = DataSize.ofMegabytes(64);
+}
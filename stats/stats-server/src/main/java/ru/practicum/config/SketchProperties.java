@@ -0,0 +1,19 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats.sketches")
+public class SketchProperties {
+
+    private Duration flushInterval = Duration.ofSeconds(1);
+    private int maxPendingKeys = 10_000;
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+    private boolean rebuildOnStartup = true;
+    private Duration rebuildLookback = Duration.ofDays(7);
+}
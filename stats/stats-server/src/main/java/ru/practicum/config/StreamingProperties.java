@@ -0,0 +1,14 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats.streaming")
+public class StreamingProperties {
+
+    private int fetchSize = 1000;
+    private int flushEvery = 256;
+}
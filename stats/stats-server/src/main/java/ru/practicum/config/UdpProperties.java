@@ -0,0 +1,22 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats.udp")
+public class UdpProperties {
+
+    private boolean enabled = false;
+    private String host = "0.0.0.0";
+    private int port = 9091;
+    private DataSize receiveBufferSize = DataSize.ofMegabytes(4);
+    private int queueCapacity = 100_000;
+    private int batchSize = 1000;
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+}
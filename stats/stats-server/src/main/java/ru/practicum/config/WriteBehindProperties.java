@@ -0,0 +1,23 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats.write-behind")
+public class WriteBehindProperties {
+
+    private boolean enabled = false;
+    private int capacity = 100_000;
+    private int batchSize = 1_000;
+    private Duration flushInterval = Duration.ofMillis(500);
+    private Duration retryAfter = Duration.ofSeconds(1);
+    private int maxFlushAttempts = 5;
+    private Duration flushRetryBackoff = Duration.ofMillis(200);
+    private Duration maxFlushRetryBackoff = Duration.ofSeconds(5);
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+}
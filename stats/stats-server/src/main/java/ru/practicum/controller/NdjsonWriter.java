@@ -0,0 +1,42 @@
+package ru.practicum.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import ru.practicum.ViewStatsDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+class NdjsonWriter implements Consumer<ViewStatsDto> {
+
+    private final ObjectWriter objectWriter;
+    private final OutputStream outputStream;
+    private final int flushEvery;
+    private int pending;
+
+    NdjsonWriter(ObjectMapper objectMapper, OutputStream outputStream, int flushEvery) {
+        this.objectWriter = objectMapper.writerFor(ViewStatsDto.class);
+        this.outputStream = outputStream;
+        this.flushEvery = Math.max(1, flushEvery);
+    }
+
+    @Override
+    public void accept(ViewStatsDto stats) {
+        try {
+            outputStream.write(objectWriter.writeValueAsBytes(stats));
+            outputStream.write('\n');
+            if (++pending >= flushEvery) {
+                flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать строку статистики в ответ", e);
+        }
+    }
+
+    void flush() throws IOException {
+        outputStream.flush();
+        pending = 0;
+    }
+}
@@ -1,11 +1,20 @@
 package ru.practicum.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.EndpointHitDto;
+import ru.practicum.HitBatchResultDto;
+import ru.practicum.TopUriDto;
 import ru.practicum.ViewStatsDto;
+import ru.practicum.config.StreamingProperties;
+import ru.practicum.model.StatsAccuracy;
+import ru.practicum.model.TopWindow;
 import ru.practicum.service.StatsService;
 
 import java.util.List;
@@ -14,7 +23,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class StatsController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final StatsService statsService;
+    private final ObjectMapper objectMapper;
+    private final StreamingProperties streamingProperties;
 
     @PostMapping("/hit")
     @ResponseStatus(HttpStatus.CREATED)
@@ -22,12 +35,43 @@ public class StatsController {
         statsService.save(hitDto);
     }
 
+    @PostMapping("/hits")
+    @ResponseStatus(HttpStatus.CREATED)
+    public HitBatchResultDto saveAll(@RequestBody List<EndpointHitDto> hitDtos) {
+        return statsService.saveAll(hitDtos);
+    }
+
     @GetMapping("/stats")
     @ResponseStatus(HttpStatus.OK)
     public List<ViewStatsDto> getStats(@RequestParam String start,
                                        @RequestParam String end,
                                        @RequestParam(required = false) List<String> uris,
-                                       @RequestParam(defaultValue = "false") boolean unique) {
-        return statsService.getStats(start, end, uris, unique);
+                                       @RequestParam(defaultValue = "false") boolean unique,
+                                       @RequestParam(defaultValue = "EXACT") StatsAccuracy accuracy) {
+        return statsService.getStats(start, end, uris, unique, accuracy);
+    }
+
+    @GetMapping("/stats/top")
+    @ResponseStatus(HttpStatus.OK)
+    public List<TopUriDto> getTopUris(@RequestParam(defaultValue = "HOUR") TopWindow window,
+                                      @RequestParam(defaultValue = "10") int k) {
+        return statsService.getTopUris(window, k);
+    }
+
+    @GetMapping(value = "/stats", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamStats(@RequestParam String start,
+                                                             @RequestParam String end,
+                                                             @RequestParam(required = false) List<String> uris,
+                                                             @RequestParam(defaultValue = "false") boolean unique,
+                                                             @RequestParam(defaultValue = "EXACT") StatsAccuracy accuracy) {
+        statsService.validateRange(start, end);
+        StreamingResponseBody body = outputStream -> {
+            NdjsonWriter writer = new NdjsonWriter(objectMapper, outputStream, streamingProperties.getFlushEvery());
+            statsService.streamStats(start, end, uris, unique, accuracy, writer);
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
     }
 }
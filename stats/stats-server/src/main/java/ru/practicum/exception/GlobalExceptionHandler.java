@@ -1,12 +1,16 @@
 package ru.practicum.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -37,32 +41,57 @@ public class GlobalExceptionHandler {
     }
 
     @ExceptionHandler(IllegalArgumentException.class)
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ErrorResponse handleIllegalArgumentException(IllegalArgumentException e) {
+    public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException e) {
         log.warn("Некорректный аргумент: {}", e.getMessage(), e);
 
-        return new ErrorResponse(
+        return badRequest(new ErrorResponse(
                 "BAD_REQUEST",
                 "Некорректный запрос из-за неверного аргумента.",
                 e.getMessage(),
                 LocalDateTime.now()
-        );
+        ));
     }
 
     @ExceptionHandler(MissingServletRequestParameterException.class)
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ErrorResponse handleMissingServletRequestParameterException(MissingServletRequestParameterException e) {
+    public ResponseEntity<ErrorResponse> handleMissingServletRequestParameterException(MissingServletRequestParameterException e) {
         String parameterName = e.getParameterName();
         String parameterType = e.getParameterType();
         String message = String.format("Отсутствует обязательный параметр: '%s' типа '%s'.", parameterName, parameterType);
         log.warn("Отсутствует параметр запроса: {}", message, e);
 
-        return new ErrorResponse(
+        return badRequest(new ErrorResponse(
                 "BAD_REQUEST",
                 "Отсутствует обязательный параметр запроса.",
                 message,
                 LocalDateTime.now()
+        ));
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException e) {
+        String message = String.format("Некорректное значение параметра '%s': %s", e.getName(), e.getValue());
+        log.warn(message);
+
+        return badRequest(new ErrorResponse(
+                "BAD_REQUEST",
+                "Некорректный запрос из-за неверного аргумента.",
+                message,
+                LocalDateTime.now()
+        ));
+    }
+
+    @ExceptionHandler(HitBufferOverflowException.class)
+    public ResponseEntity<ErrorResponse> handleHitBufferOverflowException(HitBufferOverflowException e) {
+        log.warn("Буфер просмотров переполнен: {}", e.getMessage());
+        ErrorResponse body = new ErrorResponse(
+                "TOO_MANY_REQUESTS",
+                "Сервер статистики перегружен.",
+                e.getMessage(),
+                LocalDateTime.now()
         );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(body);
     }
 
     @ExceptionHandler(Exception.class)
@@ -76,4 +105,10 @@ public class GlobalExceptionHandler {
                 LocalDateTime.now()
         );
     }
+
+    private static ResponseEntity<ErrorResponse> badRequest(ErrorResponse body) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
 }
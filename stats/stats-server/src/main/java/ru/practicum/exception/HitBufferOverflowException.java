@@ -0,0 +1,16 @@
+package ru.practicum.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class HitBufferOverflowException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public HitBufferOverflowException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practicum.mapper;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.Arrays;
+
+/**
+ * Разбирает только литералы IPv4 и IPv6 без обращения к DNS: InetAddress.getByName принял бы имя хоста
+ * и заблокировал поток приема просмотров на разрешении имени. IPv4-mapped адреса сводятся к четырем байтам,
+ * как это делает InetAddress.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class IpAddressMapper {
+
+    private static final int IPV4_BYTES = 4;
+    private static final int IPV6_BYTES = 16;
+
+    public static byte[] toBytes(String ip) {
+        byte[] address = null;
+        if (ip != null) {
+            address = ip.indexOf(':') >= 0 ? parseIpv6(ip) : parseIpv4(ip);
+        }
+        if (address == null) {
+            throw new IllegalArgumentException("Некорректный IP-адрес: " + ip);
+        }
+        return address;
+    }
+
+    private static byte[] parseIpv4(String ip) {
+        byte[] address = new byte[IPV4_BYTES];
+        return parseIpv4(ip, 0, ip.length(), address, 0) ? address : null;
+    }
+
+    private static boolean parseIpv4(String ip, int from, int to, byte[] address, int offset) {
+        int octets = 0;
+        int value = 0;
+        int digits = 0;
+        for (int i = from; i <= to; i++) {
+            char c = i == to ? '.' : ip.charAt(i);
+            if (c == '.') {
+                if (digits == 0 || octets == IPV4_BYTES) {
+                    return false;
+                }
+                address[offset + octets++] = (byte) value;
+                value = 0;
+                digits = 0;
+            } else if (c >= '0' && c <= '9' && digits < 3) {
+                value = value * 10 + (c - '0');
+                if (value > 255) {
+                    return false;
+                }
+                digits++;
+            } else {
+                return false;
+            }
+        }
+        return octets == IPV4_BYTES;
+    }
+
+    private static byte[] parseIpv6(String ip) {
+        byte[] address = new byte[IPV6_BYTES];
+        int length = ip.length();
+        int gap = -1;
+        int position = 0;
+        int i = 0;
+        if (ip.startsWith("::")) {
+            gap = 0;
+            i = 2;
+        } else if (ip.startsWith(":")) {
+            return null;
+        }
+        while (i < length) {
+            if (position == IPV6_BYTES) {
+                return null;
+            }
+            int end = i;
+            int value = 0;
+            while (end < length && end - i < 4 && Character.digit(ip.charAt(end), 16) >= 0) {
+                value = value << 4 | Character.digit(ip.charAt(end), 16);
+                end++;
+            }
+            if (end < length && ip.charAt(end) == '.') {
+                if (position > IPV6_BYTES - IPV4_BYTES || !parseIpv4(ip, i, length, address, position)) {
+                    return null;
+                }
+                position += IPV4_BYTES;
+                break;
+            }
+            if (end == i) {
+                return null;
+            }
+            address[position++] = (byte) (value >>> 8);
+            address[position++] = (byte) value;
+            if (end == length) {
+                break;
+            }
+            if (ip.charAt(end) != ':' || end + 1 == length) {
+                return null;
+            }
+            if (ip.charAt(end + 1) == ':') {
+                if (gap >= 0) {
+                    return null;
+                }
+                gap = position;
+                i = end + 2;
+            } else {
+                i = end + 1;
+            }
+        }
+        if (gap < 0 ? position != IPV6_BYTES : position == IPV6_BYTES) {
+            return null;
+        }
+        if (gap >= 0) {
+            int tail = position - gap;
+            System.arraycopy(address, gap, address, IPV6_BYTES - tail, tail);
+            Arrays.fill(address, gap, IPV6_BYTES - tail, (byte) 0);
+        }
+        return isIpv4Mapped(address) ? Arrays.copyOfRange(address, IPV6_BYTES - IPV4_BYTES, IPV6_BYTES) : address;
+    }
+
+    private static boolean isIpv4Mapped(byte[] address) {
+        for (int i = 0; i < 10; i++) {
+            if (address[i] != 0) {
+                return false;
+            }
+        }
+        return address[10] == (byte) 0xff && address[11] == (byte) 0xff;
+    }
+}
@@ -5,14 +5,16 @@ import lombok.NoArgsConstructor;
 import ru.practicum.model.EndpointHit;
 import ru.practicum.EndpointHitDto;
 
+import java.time.temporal.ChronoUnit;
+
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class StatsMapper {
-    public static EndpointHit toEntity(EndpointHitDto dto) {
+    public static EndpointHit toEntity(EndpointHitDto dto, int appId, int uriId) {
         return EndpointHit.builder()
-                .app(dto.getApp())
-                .uri(dto.getUri())
-                .ip(dto.getIp())
-                .timestamp(dto.getTimestamp())
+                .appId(appId)
+                .uriId(uriId)
+                .ip(IpAddressMapper.toBytes(dto.getIp()))
+                .timestamp(dto.getTimestamp().truncatedTo(ChronoUnit.SECONDS))
                 .build();
     }
 }
@@ -0,0 +1,99 @@
+package ru.practicum.memory;
+
+import ru.practicum.sketch.SpaceSaving;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+public class HeavyHitterWindow {
+
+    private final long bucketSeconds;
+    private final int buckets;
+    private final int capacity;
+    private final SpaceSaving[] sketches;
+    private final long[] bucketIndexes;
+    private final boolean[] dirty;
+
+    private SpaceSaving closedMerge;
+    private long closedMergeIndex = -1;
+
+    public HeavyHitterWindow(long bucketSeconds, int buckets, int capacity) {
+        this.bucketSeconds = bucketSeconds;
+        this.buckets = buckets;
+        this.capacity = capacity;
+        this.sketches = new SpaceSaving[buckets];
+        this.bucketIndexes = new long[buckets];
+        this.dirty = new boolean[buckets];
+        Arrays.fill(bucketIndexes, -1);
+    }
+
+    public synchronized void add(long epochSecond, long key) {
+        long index = Math.floorDiv(epochSecond, bucketSeconds);
+        int slot = (int) Math.floorMod(index, buckets);
+        if (bucketIndexes[slot] > index) {
+            return;
+        }
+        if (bucketIndexes[slot] < index) {
+            sketches[slot] = new SpaceSaving(capacity);
+            bucketIndexes[slot] = index;
+        }
+        sketches[slot].offer(key);
+        dirty[slot] = true;
+        if (index < closedMergeIndex) {
+            closedMergeIndex = -1;
+        }
+    }
+
+    public synchronized List<SpaceSaving.Counter> top(long nowEpochSecond, int k) {
+        long current = Math.floorDiv(nowEpochSecond, bucketSeconds);
+        if (closedMergeIndex != current) {
+            List<SpaceSaving> closed = new ArrayList<>(buckets - 1);
+            for (int slot = 0; slot < buckets; slot++) {
+                long index = bucketIndexes[slot];
+                if (index > current - buckets && index < current) {
+                    closed.add(sketches[slot]);
+                }
+            }
+            closedMerge = SpaceSaving.merge(capacity, closed);
+            closedMergeIndex = current;
+        }
+        int slot = (int) Math.floorMod(current, buckets);
+        if (bucketIndexes[slot] != current) {
+            return closedMerge.top(k);
+        }
+        return SpaceSaving.merge(capacity, List.of(closedMerge, sketches[slot])).top(k);
+    }
+
+    public synchronized void restore(long bucketStartEpochSecond, SpaceSaving sketch) {
+        long index = Math.floorDiv(bucketStartEpochSecond, bucketSeconds);
+        int slot = (int) Math.floorMod(index, buckets);
+        if (bucketIndexes[slot] > index) {
+            return;
+        }
+        sketches[slot] = bucketIndexes[slot] == index
+                ? SpaceSaving.merge(capacity, List.of(sketches[slot], sketch))
+                : sketch;
+        bucketIndexes[slot] = index;
+        closedMergeIndex = -1;
+    }
+
+    public synchronized void drainDirty(long nowEpochSecond, BiConsumer<Long, byte[]> consumer) {
+        long current = Math.floorDiv(nowEpochSecond, bucketSeconds);
+        for (int slot = 0; slot < buckets; slot++) {
+            if (dirty[slot] && bucketIndexes[slot] > current - buckets) {
+                consumer.accept(bucketIndexes[slot] * bucketSeconds, sketches[slot].toBytes());
+            }
+            dirty[slot] = false;
+        }
+    }
+
+    public synchronized void markDirty(long bucketStartEpochSecond) {
+        long index = Math.floorDiv(bucketStartEpochSecond, bucketSeconds);
+        int slot = (int) Math.floorMod(index, buckets);
+        if (bucketIndexes[slot] == index) {
+            dirty[slot] = true;
+        }
+    }
+}
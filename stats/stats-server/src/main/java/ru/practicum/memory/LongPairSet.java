@@ -0,0 +1,57 @@
+package ru.practicum.memory;
+
+public class LongPairSet {
+
+    private long[] firsts;
+    private long[] seconds;
+    private boolean[] used;
+    private int size;
+
+    public LongPairSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        firsts = new long[capacity];
+        seconds = new long[capacity];
+        used = new boolean[capacity];
+    }
+
+    public boolean add(long first, long second) {
+        int slot = find(firsts, seconds, used, first, second);
+        if (used[slot]) {
+            return false;
+        }
+        used[slot] = true;
+        firsts[slot] = first;
+        seconds[slot] = second;
+        size++;
+        if (size * 2 > used.length) {
+            grow();
+        }
+        return true;
+    }
+
+    private static int find(long[] firsts, long[] seconds, boolean[] used, long first, long second) {
+        int mask = used.length - 1;
+        int slot = (int) LongCounterMap.mix(first * 31 + second) & mask;
+        while (used[slot] && (firsts[slot] != first || seconds[slot] != second)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldFirsts = firsts;
+        long[] oldSeconds = seconds;
+        boolean[] oldUsed = used;
+        firsts = new long[oldUsed.length * 2];
+        seconds = new long[oldUsed.length * 2];
+        used = new boolean[oldUsed.length * 2];
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                int slot = find(firsts, seconds, used, oldFirsts[i], oldSeconds[i]);
+                used[slot] = true;
+                firsts[slot] = oldFirsts[i];
+                seconds[slot] = oldSeconds[i];
+            }
+        }
+    }
+}
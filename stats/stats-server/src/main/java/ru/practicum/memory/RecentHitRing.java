@@ -0,0 +1,181 @@
+package ru.practicum.memory;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class RecentHitRing {
+
+    public static final int BYTES_PER_HIT = Integer.BYTES * 2 + Long.BYTES * 3;
+
+    private static final long WRITING = -1;
+
+    private static final int BLOCK_SHIFT = 10;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final long LOW_BITS = 0xffffffffL;
+
+    private final int capacity;
+    private final int mask;
+    private final int[] appIds;
+    private final int[] uriIds;
+    private final long[] epochSeconds;
+    private final long[] ipKeys;
+    private final AtomicLongArray published;
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicLong coveredFrom;
+    private final long timeBase;
+    private final int blockMask;
+    private final AtomicLongArray blockMin;
+    private final AtomicLongArray blockMax;
+
+    public RecentHitRing(int requestedCapacity, long coveredFromEpochSecond) {
+        this.capacity = Integer.highestOneBit(Math.max(2, requestedCapacity));
+        this.mask = capacity - 1;
+        this.appIds = new int[capacity];
+        this.uriIds = new int[capacity];
+        this.epochSeconds = new long[capacity];
+        this.ipKeys = new long[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.coveredFrom = new AtomicLong(coveredFromEpochSecond);
+        this.timeBase = coveredFromEpochSecond - Integer.MAX_VALUE;
+        int blocks = Math.max(1, capacity >>> BLOCK_SHIFT);
+        this.blockMask = blocks - 1;
+        this.blockMin = new AtomicLongArray(blocks);
+        this.blockMax = new AtomicLongArray(blocks);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long coveredFrom() {
+        return coveredFrom.get();
+    }
+
+    public void add(int appId, int uriId, long epochSecond, long ipKey) {
+        long sequence = cursor.getAndIncrement();
+        int slot = (int) (sequence & mask);
+        if (published.get(slot) > 0) {
+            long evicted = epochSeconds[slot];
+            coveredFrom.accumulateAndGet(evicted + 1, Math::max);
+        }
+        published.set(slot, WRITING);
+        VarHandle.storeStoreFence();
+        widenBlock(sequence, epochSecond);
+        appIds[slot] = appId;
+        uriIds[slot] = uriId;
+        epochSeconds[slot] = epochSecond;
+        ipKeys[slot] = ipKey;
+        published.set(slot, sequence + 1);
+    }
+
+    public void count(long fromEpochSecond, long toEpochSecond, int[] uriFilter, LongCounterMap counts) {
+        scan(fromEpochSecond, toEpochSecond, uriFilter, counts, null);
+    }
+
+    public void countDistinctIps(long fromEpochSecond, long toEpochSecond, int[] uriFilter, LongCounterMap counts) {
+        scan(fromEpochSecond, toEpochSecond, uriFilter, counts, new LongPairSet(1024));
+    }
+
+    private void scan(long from, long to, int[] uriFilter, LongCounterMap counts, LongPairSet seenIps) {
+        long end = cursor.get();
+        long start = Math.max(0, end - capacity);
+        long relativeFrom = relative(from);
+        long relativeTo = relative(to);
+        for (long blockStart = start & -BLOCK_SIZE; blockStart < end; blockStart += BLOCK_SIZE) {
+            if (blockOutside(blockStart, relativeFrom, relativeTo)) {
+                continue;
+            }
+            long blockEnd = Math.min(end, blockStart + BLOCK_SIZE);
+            for (long sequence = Math.max(start, blockStart); sequence < blockEnd; sequence++) {
+                scanSlot(sequence, from, to, uriFilter, counts, seenIps);
+            }
+        }
+    }
+
+    private void scanSlot(long sequence, long from, long to, int[] uriFilter, LongCounterMap counts,
+                          LongPairSet seenIps) {
+        int slot = (int) (sequence & mask);
+        long version = published.get(slot);
+        if (version != sequence + 1) {
+            return;
+        }
+        int appId = appIds[slot];
+        int uriId = uriIds[slot];
+        long epochSecond = epochSeconds[slot];
+        long ipKey = ipKeys[slot];
+        VarHandle.loadLoadFence();
+        if (published.get(slot) != version) {
+            return;
+        }
+        if (epochSecond < from || epochSecond > to || !matches(uriFilter, uriId)) {
+            return;
+        }
+        long key = ((long) appId << 32) | (uriId & 0xffffffffL);
+        if (seenIps == null || seenIps.add(key, ipKey)) {
+            counts.add(key, 1);
+        }
+    }
+
+    /**
+     * Границы времени блока хранятся как (поколение блока << 32 | секунды от timeBase).
+     * Запись старого поколения перекрывается первой записью нового, поэтому после оборота кольца
+     * границы не разрастаются; пока поколение блока не совпадает с ожидаемым, блок сканируется целиком.
+     */
+    private void widenBlock(long sequence, long epochSecond) {
+        int block = (int) ((sequence >>> BLOCK_SHIFT) & blockMask);
+        long generation = generation(sequence);
+        long time = relative(epochSecond);
+        long current;
+        long next;
+        do {
+            current = blockMin.get(block);
+            long currentGeneration = current >>> 32;
+            if (currentGeneration > generation
+                    || (currentGeneration == generation && (current & LOW_BITS) <= time)) {
+                break;
+            }
+            next = (generation << 32) | time;
+        } while (!blockMin.compareAndSet(block, current, next));
+        do {
+            current = blockMax.get(block);
+            long currentGeneration = current >>> 32;
+            if (currentGeneration > generation
+                    || (currentGeneration == generation && (current & LOW_BITS) >= time)) {
+                break;
+            }
+            next = (generation << 32) | time;
+        } while (!blockMax.compareAndSet(block, current, next));
+    }
+
+    private boolean blockOutside(long blockStart, long relativeFrom, long relativeTo) {
+        int block = (int) ((blockStart >>> BLOCK_SHIFT) & blockMask);
+        long generation = generation(blockStart);
+        long min = blockMin.get(block);
+        long max = blockMax.get(block);
+        if (min >>> 32 != generation || max >>> 32 != generation) {
+            return false;
+        }
+        return (max & LOW_BITS) < relativeFrom || (min & LOW_BITS) > relativeTo;
+    }
+
+    private long generation(long sequence) {
+        return ((sequence >>> BLOCK_SHIFT) + 1) & LOW_BITS;
+    }
+
+    private long relative(long epochSecond) {
+        return Math.clamp(epochSecond - timeBase, 0, LOW_BITS);
+    }
+
+    private static boolean matches(int[] uriFilter, int uriId) {
+        if (uriFilter == null) {
+            return true;
+        }
+        for (int id : uriFilter) {
+            if (id == uriId) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,165 @@
+package ru.practicum.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import ru.practicum.mapper.IpAddressMapper;
+import ru.practicum.model.RollupKey;
+import ru.practicum.repository.HitSketchRepository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Приводит базу статистики любой предыдущей версии к текущей схеме из schema.sql. Прежняя endpoint_hits
+ * со строковыми app, uri и ip переименовывается, её строки переносятся в партиционированную таблицу
+ * со словарями и двоичными IP, после чего агрегаты и скетчи пересчитываются по сырым данным. На базе,
+ * созданной из актуального schema.sql, миграция ничего не меняет.
+ */
+@Slf4j
+public class V1__UpgradeStatsSchema extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final List<String> ROLLUP_TABLES = List.of("hits_minute", "hits_hour", "hits_unique_sketch");
+
+    private static final String HAS_COLUMN = """
+            SELECT EXISTS (
+                SELECT 1 FROM information_schema.columns
+                WHERE table_schema = current_schema() AND table_name = ? AND column_name = ?
+            )
+            """;
+
+    private static final String SELECT_LEGACY_HITS = """
+            SELECT l.id, a.id AS app_id, u.id AS uri_id, l.ip, l."timestamp"
+            FROM endpoint_hits_legacy l
+            JOIN hit_apps a ON a.name = l.app
+            JOIN hit_uris u ON u.name = l.uri
+            WHERE l.id > ?
+            ORDER BY l.id
+            LIMIT ?
+            """;
+
+    private static final String INSERT_HIT = """
+            INSERT INTO endpoint_hits (app_id, uri_id, ip, "timestamp") VALUES (?, ?, ?, ?)
+            """;
+
+    private static final String BACKFILL_ROLLUP = """
+            INSERT INTO %s (app_id, uri_id, bucket, hits)
+            SELECT app_id, uri_id, date_trunc('%s', "timestamp"), COUNT(*)
+            FROM endpoint_hits
+            GROUP BY app_id, uri_id, date_trunc('%s', "timestamp")
+            ON CONFLICT (bucket, app_id, uri_id) DO UPDATE SET hits = EXCLUDED.hits
+            """;
+
+    @Override
+    public void migrate(Context context) throws IOException {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+
+        boolean legacyHits = hasColumn(jdbcTemplate, "endpoint_hits", "app");
+        if (legacyHits) {
+            jdbcTemplate.execute("ALTER TABLE endpoint_hits RENAME TO endpoint_hits_legacy");
+            jdbcTemplate.execute("ALTER TABLE endpoint_hits_legacy RENAME CONSTRAINT pk_endpoint_hits "
+                    + "TO pk_endpoint_hits_legacy");
+            jdbcTemplate.execute("ALTER TABLE IF EXISTS endpoint_hits_default RENAME TO endpoint_hits_legacy_default");
+            jdbcTemplate.execute("ALTER INDEX IF EXISTS idx_endpoint_hits_timestamp "
+                    + "RENAME TO idx_endpoint_hits_legacy_timestamp");
+            jdbcTemplate.execute("ALTER INDEX IF EXISTS idx_endpoint_hits_uri_timestamp "
+                    + "RENAME TO idx_endpoint_hits_legacy_uri_timestamp");
+        }
+        boolean legacyRollups = false;
+        for (String table : ROLLUP_TABLES) {
+            if (hasColumn(jdbcTemplate, table, "app")) {
+                jdbcTemplate.execute("DROP TABLE " + table);
+                legacyRollups = true;
+            }
+        }
+
+        for (String statement : schemaStatements()) {
+            jdbcTemplate.execute(statement);
+        }
+        jdbcTemplate.execute("ALTER TABLE hits_unique_sketch ADD COLUMN IF NOT EXISTS hits BIGINT NOT NULL DEFAULT 0");
+
+        if (legacyHits) {
+            copyLegacyHits(jdbcTemplate);
+            jdbcTemplate.execute("DROP TABLE endpoint_hits_legacy CASCADE");
+        }
+        if (legacyHits || legacyRollups) {
+            jdbcTemplate.update(BACKFILL_ROLLUP.formatted("hits_minute", "minute", "minute"));
+            jdbcTemplate.update(BACKFILL_ROLLUP.formatted("hits_hour", "hour", "hour"));
+        }
+        rebuildSketches(jdbcTemplate);
+    }
+
+    private void copyLegacyHits(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO hit_apps (name) SELECT DISTINCT app FROM endpoint_hits_legacy "
+                + "ON CONFLICT (name) DO NOTHING");
+        jdbcTemplate.update("INSERT INTO hit_uris (name) SELECT DISTINCT uri FROM endpoint_hits_legacy "
+                + "ON CONFLICT (name) DO NOTHING");
+
+        long lastId = 0;
+        long copied = 0;
+        long skipped = 0;
+        while (true) {
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            List<Long> ids = new ArrayList<>(BATCH_SIZE);
+            List<String> invalid = new ArrayList<>();
+            jdbcTemplate.query(SELECT_LEGACY_HITS, (RowCallbackHandler) rs -> {
+                ids.add(rs.getLong("id"));
+                String ip = rs.getString("ip");
+                try {
+                    batch.add(new Object[]{rs.getInt("app_id"), rs.getInt("uri_id"), IpAddressMapper.toBytes(ip),
+                            rs.getTimestamp("timestamp")});
+                } catch (IllegalArgumentException e) {
+                    invalid.add(ip);
+                }
+            }, lastId, BATCH_SIZE);
+            if (ids.isEmpty()) {
+                break;
+            }
+            jdbcTemplate.batchUpdate(INSERT_HIT, batch);
+            lastId = ids.get(ids.size() - 1);
+            copied += batch.size();
+            skipped += invalid.size();
+        }
+        log.info("Перенесено просмотров из прежней схемы: {}, пропущено с некорректным IP: {}", copied, skipped);
+    }
+
+    private void rebuildSketches(JdbcTemplate jdbcTemplate) {
+        HitSketchRepository hitSketchRepository = new HitSketchRepository(jdbcTemplate,
+                new NamedParameterJdbcTemplate(jdbcTemplate));
+        List<RollupKey> keys = hitSketchRepository.findUnsketchedHours(EPOCH);
+        for (RollupKey key : keys) {
+            hitSketchRepository.rebuild(key);
+        }
+        if (!keys.isEmpty()) {
+            log.info("Пересчитано часовых скетчей уникальных просмотров: {}", keys.size());
+        }
+    }
+
+    private static boolean hasColumn(JdbcTemplate jdbcTemplate, String table, String column) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(HAS_COLUMN, Boolean.class, table, column));
+    }
+
+    private static List<String> schemaStatements() throws IOException {
+        String script = new ClassPathResource("schema.sql").getContentAsString(StandardCharsets.UTF_8);
+        List<String> statements = new ArrayList<>();
+        for (String statement : script.split(";")) {
+            String trimmed = statement.strip();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("DROP ")) {
+                statements.add(trimmed);
+            }
+        }
+        return statements;
+    }
+}
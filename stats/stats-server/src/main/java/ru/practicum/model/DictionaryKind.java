@@ -0,0 +1,13 @@
+package ru.practicum.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum DictionaryKind {
+    APP("hit_apps"),
+    URI("hit_uris");
+
+    private final String table;
+}
@@ -18,9 +18,13 @@ public class EndpointHit {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    private String app;
-    private String uri;
-    private String ip;
+    @Column(name = "app_id")
+    private Integer appId;
+
+    @Column(name = "uri_id")
+    private Integer uriId;
+
+    private byte[] ip;
 
     @Column(name = "timestamp")
     private LocalDateTime timestamp;
@@ -0,0 +1,4 @@
+package ru.practicum.model;
+
+public record HitCount(Integer appId, Integer uriId, Long hits) {
+}
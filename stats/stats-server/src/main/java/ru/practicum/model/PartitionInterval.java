@@ -0,0 +1,40 @@
+package ru.practicum.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+
+@Getter
+@RequiredArgsConstructor
+public enum PartitionInterval {
+    DAY("endpoint_hits_d"),
+    WEEK("endpoint_hits_w");
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final String prefix;
+
+    public LocalDate floor(LocalDate date) {
+        return this == DAY ? date : date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    public LocalDate next(LocalDate start) {
+        return this == DAY ? start.plusDays(1) : start.plusWeeks(1);
+    }
+
+    public String partitionName(LocalDate start) {
+        return prefix + start.format(SUFFIX);
+    }
+
+    public LocalDate parseStart(String partitionName) {
+        return LocalDate.parse(partitionName.substring(prefix.length()), SUFFIX);
+    }
+
+    public boolean owns(String partitionName) {
+        return partitionName.startsWith(prefix) && partitionName.length() == prefix.length() + 8;
+    }
+}
@@ -0,0 +1,10 @@
+package ru.practicum.model;
+
+import java.time.LocalDateTime;
+
+public record QuerySegment(RollupGranularity granularity, LocalDateTime from, LocalDateTime to) {
+
+    public boolean isRaw() {
+        return granularity == null;
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.model;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+public record RollupKey(int appId, int uriId, LocalDateTime bucket) implements Comparable<RollupKey> {
+
+    private static final Comparator<RollupKey> ORDER = Comparator.comparing(RollupKey::bucket)
+            .thenComparingInt(RollupKey::appId)
+            .thenComparingInt(RollupKey::uriId);
+
+    @Override
+    public int compareTo(RollupKey other) {
+        return ORDER.compare(this, other);
+    }
+}
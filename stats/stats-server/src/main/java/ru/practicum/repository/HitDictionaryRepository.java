@@ -0,0 +1,46 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.DictionaryKind;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class HitDictionaryRepository {
+
+    private static final String INSERT = "INSERT INTO %s (name) VALUES (?) ON CONFLICT (name) DO NOTHING";
+    private static final String SELECT_ID = "SELECT id FROM %s WHERE name = ?";
+    private static final String SELECT_BY_NAMES = "SELECT id, name FROM %s WHERE name IN (:names)";
+    private static final String SELECT_BY_IDS = "SELECT id, name FROM %s WHERE id IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public int getOrCreate(DictionaryKind kind, String name) {
+        jdbcTemplate.update(INSERT.formatted(kind.getTable()), name);
+        List<Integer> ids = jdbcTemplate.queryForList(SELECT_ID.formatted(kind.getTable()), Integer.class, name);
+        return ids.get(0);
+    }
+
+    public Map<String, Integer> findIdsByNames(DictionaryKind kind, Collection<String> names) {
+        Map<String, Integer> ids = new HashMap<>();
+        namedJdbcTemplate.query(SELECT_BY_NAMES.formatted(kind.getTable()), Map.of("names", names),
+                (RowCallbackHandler) rs -> ids.put(rs.getString("name"), rs.getInt("id")));
+        return ids;
+    }
+
+    public Map<Integer, String> findNamesByIds(DictionaryKind kind, Collection<Integer> idsToLoad) {
+        Map<Integer, String> names = new HashMap<>();
+        namedJdbcTemplate.query(SELECT_BY_IDS.formatted(kind.getTable()), Map.of("ids", idsToLoad),
+                (RowCallbackHandler) rs -> names.put(rs.getInt("id"), rs.getString("name")));
+        return names;
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.config.IngestProperties;
+import ru.practicum.model.HitCount;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupKey;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Repository
+@RequiredArgsConstructor
+public class HitRollupRepository {
+
+    private static final String UPSERT = """
+            INSERT INTO %1$s (app_id, uri_id, bucket, hits)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (bucket, app_id, uri_id) DO UPDATE SET hits = %1$s.hits + EXCLUDED.hits
+            """;
+
+    private static final String SELECT_COUNTS = """
+            SELECT r.app_id, r.uri_id, SUM(r.hits) AS hits
+            FROM %s r
+            WHERE r.bucket >= :start AND r.bucket < :end
+            %s
+            GROUP BY r.app_id, r.uri_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final IngestProperties ingestProperties;
+
+    public void increment(RollupGranularity granularity, Map<RollupKey, Long> counts) {
+        if (counts.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<RollupKey, Long>> rows = new ArrayList<>(new TreeMap<>(counts).entrySet());
+        jdbcTemplate.batchUpdate(UPSERT.formatted(granularity.getTable()), rows, ingestProperties.getBatchSize(), (ps, row) -> {
+            ps.setInt(1, row.getKey().appId());
+            ps.setInt(2, row.getKey().uriId());
+            ps.setTimestamp(3, Timestamp.valueOf(row.getKey().bucket()));
+            ps.setLong(4, row.getValue());
+        });
+    }
+
+    public List<HitCount> findCounts(RollupGranularity granularity,
+                                     LocalDateTime start,
+                                     LocalDateTime end,
+                                     List<Integer> uriIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("start", Timestamp.valueOf(start))
+                .addValue("end", Timestamp.valueOf(end));
+        String uriFilter = "";
+        if (uriIds != null) {
+            uriFilter = "AND r.uri_id IN (:uriIds)";
+            params.addValue("uriIds", uriIds);
+        }
+        return namedJdbcTemplate.query(SELECT_COUNTS.formatted(granularity.getTable(), uriFilter), params,
+                (rs, rowNum) -> new HitCount(rs.getInt("app_id"), rs.getInt("uri_id"), rs.getLong("hits")));
+    }
+}
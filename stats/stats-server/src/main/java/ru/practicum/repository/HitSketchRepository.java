@@ -0,0 +1,162 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.AppUri;
+import ru.practicum.model.RollupKey;
+import ru.practicum.sketch.HyperLogLog;
+import ru.practicum.sketch.SketchDelta;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+@Repository
+@RequiredArgsConstructor
+public class HitSketchRepository {
+
+    private static final String SELECT_FOR_UPDATE = """
+            SELECT sketch FROM hits_unique_sketch
+            WHERE bucket = ? AND app_id = ? AND uri_id = ?
+            FOR UPDATE
+            """;
+
+    private static final String INSERT = """
+            INSERT INTO hits_unique_sketch (app_id, uri_id, bucket, sketch, hits)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (bucket, app_id, uri_id) DO NOTHING
+            """;
+
+    private static final String UPDATE = """
+            UPDATE hits_unique_sketch SET sketch = ?, hits = hits + ?
+            WHERE bucket = ? AND app_id = ? AND uri_id = ?
+            """;
+
+    private static final String SET_HITS = """
+            UPDATE hits_unique_sketch SET hits = ?
+            WHERE bucket = ? AND app_id = ? AND uri_id = ?
+            """;
+
+    private static final String SELECT_UNSKETCHED_HOURS = """
+            SELECT h.app_id, h.uri_id, h.bucket
+            FROM hits_hour h
+            LEFT JOIN hits_unique_sketch s
+                ON s.bucket = h.bucket AND s.app_id = h.app_id AND s.uri_id = h.uri_id
+            WHERE h.bucket >= ? AND h.hits > COALESCE(s.hits, 0)
+            ORDER BY h.bucket, h.app_id, h.uri_id
+            """;
+
+    private static final String LOCK_HOUR = """
+            SELECT hits FROM hits_hour
+            WHERE bucket = ? AND app_id = ? AND uri_id = ?
+            FOR UPDATE
+            """;
+
+    private static final String SELECT_HOUR_IPS = """
+            SELECT e.ip FROM endpoint_hits e
+            WHERE e.uri_id = ? AND e.app_id = ? AND e."timestamp" >= ? AND e."timestamp" < ?
+            """;
+
+    private static final String SELECT_SKETCHES = """
+            SELECT s.app_id, s.uri_id, s.sketch
+            FROM hits_unique_sketch s
+            WHERE s.bucket >= :start AND s.bucket < :end
+            %s
+            """;
+
+    private static final String SELECT_DISTINCT_IPS = """
+            SELECT DISTINCT e.app_id, e.uri_id, e.ip
+            FROM endpoint_hits e
+            WHERE e."timestamp" >= :start AND e."timestamp" < :end
+            %s
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public void merge(Map<RollupKey, SketchDelta> deltas) {
+        for (Map.Entry<RollupKey, SketchDelta> entry : new TreeMap<>(deltas).entrySet()) {
+            merge(entry.getKey(), entry.getValue().getSketch(), entry.getValue().getHits());
+        }
+    }
+
+    /**
+     * Часы начиная с {@code since}, в скетч которых вошло меньше просмотров, чем учтено в hits_hour.
+     */
+    public List<RollupKey> findUnsketchedHours(LocalDateTime since) {
+        return jdbcTemplate.query(SELECT_UNSKETCHED_HOURS, (rs, rowNum) -> new RollupKey(rs.getInt("app_id"),
+                rs.getInt("uri_id"), rs.getTimestamp("bucket").toLocalDateTime()), Timestamp.valueOf(since));
+    }
+
+    /**
+     * Досчитывает часовой скетч по сырым просмотрам. Строка hits_hour блокируется, чтобы параллельная
+     * запись не изменила счётчик между чтением просмотров и сохранением; построенный скетч объединяется
+     * с сохранённым, поэтому данные из уже удалённых партиций не теряются.
+     */
+    public void rebuild(RollupKey key) {
+        Timestamp bucket = Timestamp.valueOf(key.bucket());
+        List<Long> hours = jdbcTemplate.query(LOCK_HOUR, (rs, rowNum) -> rs.getLong("hits"),
+                bucket, key.appId(), key.uriId());
+        if (hours.isEmpty()) {
+            return;
+        }
+        HyperLogLog sketch = new HyperLogLog();
+        jdbcTemplate.query(SELECT_HOUR_IPS, (RowCallbackHandler) rs -> sketch.add(rs.getBytes("ip")),
+                key.uriId(), key.appId(), bucket, Timestamp.valueOf(key.bucket().plusHours(1)));
+        merge(key, sketch, 0);
+        jdbcTemplate.update(SET_HITS, hours.get(0), bucket, key.appId(), key.uriId());
+    }
+
+    public void forEachSketch(LocalDateTime start, LocalDateTime end, List<Integer> uriIds,
+                              BiConsumer<AppUri, HyperLogLog> consumer) {
+        MapSqlParameterSource params = rangeParams(start, end, uriIds);
+        namedJdbcTemplate.query(SELECT_SKETCHES.formatted(uriFilter("s", uriIds)), params, (RowCallbackHandler) rs ->
+                consumer.accept(new AppUri(rs.getInt("app_id"), rs.getInt("uri_id")),
+                        HyperLogLog.fromBytes(rs.getBytes("sketch"))));
+    }
+
+    public void forEachDistinctIp(LocalDateTime start, LocalDateTime end, List<Integer> uriIds,
+                                  BiConsumer<AppUri, byte[]> consumer) {
+        MapSqlParameterSource params = rangeParams(start, end, uriIds);
+        namedJdbcTemplate.query(SELECT_DISTINCT_IPS.formatted(uriFilter("e", uriIds)), params, (RowCallbackHandler) rs ->
+                consumer.accept(new AppUri(rs.getInt("app_id"), rs.getInt("uri_id")), rs.getBytes("ip")));
+    }
+
+    private void merge(RollupKey key, HyperLogLog sketch, long hits) {
+        Timestamp bucket = Timestamp.valueOf(key.bucket());
+        while (true) {
+            List<byte[]> existing = jdbcTemplate.query(SELECT_FOR_UPDATE,
+                    (rs, rowNum) -> rs.getBytes("sketch"), bucket, key.appId(), key.uriId());
+            if (!existing.isEmpty()) {
+                HyperLogLog merged = HyperLogLog.fromBytes(existing.get(0));
+                merged.merge(sketch);
+                jdbcTemplate.update(UPDATE, merged.toBytes(), hits, bucket, key.appId(), key.uriId());
+                return;
+            }
+            if (jdbcTemplate.update(INSERT, key.appId(), key.uriId(), bucket, sketch.toBytes(), hits) > 0) {
+                return;
+            }
+        }
+    }
+
+    private MapSqlParameterSource rangeParams(LocalDateTime start, LocalDateTime end, List<Integer> uriIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("start", Timestamp.valueOf(start))
+                .addValue("end", Timestamp.valueOf(end));
+        if (uriIds != null) {
+            params.addValue("uriIds", uriIds);
+        }
+        return params;
+    }
+
+    private String uriFilter(String alias, List<Integer> uriIds) {
+        return uriIds == null ? "" : "AND " + alias + ".uri_id IN (:uriIds)";
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.TopWindow;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+@Repository
+@RequiredArgsConstructor
+public class HitTopSketchRepository {
+
+    private static final String UPSERT = """
+            INSERT INTO hits_top_sketch (time_window, bucket, sketch)
+            VALUES (?, ?, ?)
+            ON CONFLICT (time_window, bucket) DO UPDATE SET sketch = EXCLUDED.sketch
+            """;
+
+    private static final String SELECT_SINCE = """
+            SELECT s.bucket, s.sketch
+            FROM hits_top_sketch s
+            WHERE s.time_window = ? AND s.bucket >= ?
+            """;
+
+    private static final String DELETE_BEFORE = """
+            DELETE FROM hits_top_sketch
+            WHERE time_window = ? AND bucket < ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void save(TopWindow window, Map<LocalDateTime, byte[]> sketches) {
+        jdbcTemplate.batchUpdate(UPSERT, sketches.entrySet(), sketches.size(), (ps, entry) -> {
+            ps.setString(1, window.name());
+            ps.setTimestamp(2, Timestamp.valueOf(entry.getKey()));
+            ps.setBytes(3, entry.getValue());
+        });
+    }
+
+    public void forEachSince(TopWindow window, LocalDateTime from, BiConsumer<LocalDateTime, byte[]> consumer) {
+        jdbcTemplate.query(SELECT_SINCE, (RowCallbackHandler) rs ->
+                        consumer.accept(rs.getTimestamp("bucket").toLocalDateTime(), rs.getBytes("sketch")),
+                window.name(), Timestamp.valueOf(from));
+    }
+
+    public int deleteBefore(TopWindow window, LocalDateTime before) {
+        return jdbcTemplate.update(DELETE_BEFORE, window.name(), Timestamp.valueOf(before));
+    }
+}
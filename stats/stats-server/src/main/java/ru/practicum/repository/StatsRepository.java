@@ -4,34 +4,32 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.model.EndpointHit;
-import ru.practicum.ViewStatsDto;
+import ru.practicum.model.HitCount;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
-public interface StatsRepository extends JpaRepository<EndpointHit, Long> {
+public interface StatsRepository extends JpaRepository<EndpointHit, Long>, StatsRepositoryCustom {
 
     @Query("""
-            SELECT new ru.practicum.ViewStatsDto(e.app, e.uri, COUNT(DISTINCT e.ip))
+            SELECT new ru.practicum.model.HitCount(e.appId, e.uriId, COUNT(DISTINCT e.ip))
             FROM EndpointHit e
             WHERE e.timestamp BETWEEN :start AND :end
-            AND (:uris IS NULL OR e.uri IN :uris)
-            GROUP BY e.app, e.uri
-            ORDER BY COUNT(DISTINCT e.ip) DESC
+            AND (:uriIds IS NULL OR e.uriId IN :uriIds)
+            GROUP BY e.appId, e.uriId
             """)
-    List<ViewStatsDto> findUniqueStats(@Param("start")LocalDateTime start,
-                                       @Param("end")LocalDateTime end,
-                                       @Param("uris")List<String> uris);
+    List<HitCount> findUniqueStats(@Param("start")LocalDateTime start,
+                                   @Param("end")LocalDateTime end,
+                                   @Param("uriIds")List<Integer> uriIds);
 
     @Query("""
-            SELECT new ru.practicum.ViewStatsDto(e.app, e.uri, COUNT(e.ip))
+            SELECT new ru.practicum.model.HitCount(e.appId, e.uriId, COUNT(e.ip))
             FROM EndpointHit e
-            WHERE e.timestamp BETWEEN :start AND :end
-            AND (:uris IS NULL OR e.uri IN :uris)
-            GROUP BY e.app, e.uri
-            ORDER BY COUNT(e.ip) DESC
+            WHERE e.timestamp >= :start AND e.timestamp < :end
+            AND (:uriIds IS NULL OR e.uriId IN :uriIds)
+            GROUP BY e.appId, e.uriId
             """)
-    List<ViewStatsDto> findAllStats(@Param("start")LocalDateTime start,
-                                       @Param("end")LocalDateTime end,
-                                       @Param("uris")List<String> uris);
+    List<HitCount> countHitsInRange(@Param("start") LocalDateTime start,
+                                    @Param("end") LocalDateTime end,
+                                    @Param("uriIds") List<Integer> uriIds);
 }
@@ -0,0 +1,36 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.config.IngestProperties;
+import ru.practicum.model.EndpointHit;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class StatsRepositoryImpl implements StatsRepositoryCustom {
+
+    private static final String INSERT_HIT = """
+            INSERT INTO endpoint_hits (app_id, uri_id, ip, "timestamp")
+            VALUES (?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IngestProperties ingestProperties;
+
+    @Override
+    public void saveBatch(List<EndpointHit> hits) {
+        if (hits.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_HIT, hits, ingestProperties.getBatchSize(), (ps, hit) -> {
+            ps.setInt(1, hit.getAppId());
+            ps.setInt(2, hit.getUriId());
+            ps.setBytes(3, hit.getIp());
+            ps.setTimestamp(4, Timestamp.valueOf(hit.getTimestamp()));
+        });
+    }
+}
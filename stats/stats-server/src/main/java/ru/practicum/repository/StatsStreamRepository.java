@@ -0,0 +1,103 @@
+package ru.practicum.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.ViewStatsDto;
+import ru.practicum.config.StreamingProperties;
+import ru.practicum.model.QuerySegment;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Repository
+public class StatsStreamRepository {
+
+    private static final String SELECT_NAMED = """
+            SELECT a.name AS app, u.name AS uri, c.hits
+            FROM (%s) c
+            JOIN hit_apps a ON a.id = c.app_id
+            JOIN hit_uris u ON u.id = c.uri_id
+            ORDER BY c.hits DESC
+            """;
+
+    private static final String SUM_SEGMENTS = """
+            SELECT t.app_id, t.uri_id, SUM(t.hits) AS hits
+            FROM (%s) t
+            GROUP BY t.app_id, t.uri_id
+            """;
+
+    private static final String ROLLUP_SEGMENT = """
+            SELECT r.app_id, r.uri_id, r.hits
+            FROM %s r
+            WHERE r.bucket >= :start%2$d AND r.bucket < :end%2$d %3$s
+            """;
+
+    private static final String RAW_SEGMENT = """
+            SELECT e.app_id, e.uri_id, COUNT(*) AS hits
+            FROM endpoint_hits e
+            WHERE e."timestamp" >= :start%1$d AND e."timestamp" < :end%1$d %2$s
+            GROUP BY e.app_id, e.uri_id
+            """;
+
+    private static final String UNIQUE_COUNTS = """
+            SELECT e.app_id, e.uri_id, COUNT(DISTINCT e.ip) AS hits
+            FROM endpoint_hits e
+            WHERE e."timestamp" >= :start AND e."timestamp" < :end %s
+            GROUP BY e.app_id, e.uri_id
+            """;
+
+    private final NamedParameterJdbcTemplate cursorJdbcTemplate;
+
+    public StatsStreamRepository(DataSource dataSource, StreamingProperties streamingProperties) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(streamingProperties.getFetchSize());
+        this.cursorJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public void streamHits(List<QuerySegment> segments, List<Integer> uriIds, Consumer<ViewStatsDto> consumer) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        List<String> parts = new ArrayList<>(segments.size());
+        for (int i = 0; i < segments.size(); i++) {
+            QuerySegment segment = segments.get(i);
+            params.addValue("start" + i, Timestamp.valueOf(segment.from()));
+            params.addValue("end" + i, Timestamp.valueOf(segment.to()));
+            if (segment.isRaw()) {
+                parts.add(RAW_SEGMENT.formatted(i, uriFilter("e", uriIds)));
+            } else {
+                parts.add(ROLLUP_SEGMENT.formatted(segment.granularity().getTable(), i, uriFilter("r", uriIds)));
+            }
+        }
+        if (uriIds != null) {
+            params.addValue("uriIds", uriIds);
+        }
+        String counts = SUM_SEGMENTS.formatted(String.join(" UNION ALL ", parts));
+        cursorJdbcTemplate.query(SELECT_NAMED.formatted(counts), params, rowHandler(consumer));
+    }
+
+    public void streamUniqueHits(LocalDateTime start, LocalDateTime endExclusive, List<Integer> uriIds,
+                                 Consumer<ViewStatsDto> consumer) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("start", Timestamp.valueOf(start))
+                .addValue("end", Timestamp.valueOf(endExclusive));
+        if (uriIds != null) {
+            params.addValue("uriIds", uriIds);
+        }
+        String counts = UNIQUE_COUNTS.formatted(uriFilter("e", uriIds));
+        cursorJdbcTemplate.query(SELECT_NAMED.formatted(counts), params, rowHandler(consumer));
+    }
+
+    private static String uriFilter(String alias, List<Integer> uriIds) {
+        return uriIds == null ? "" : "AND " + alias + ".uri_id IN (:uriIds)";
+    }
+
+    private static RowCallbackHandler rowHandler(Consumer<ViewStatsDto> consumer) {
+        return rs -> consumer.accept(new ViewStatsDto(rs.getString("app"), rs.getString("uri"), rs.getLong("hits")));
+    }
+}
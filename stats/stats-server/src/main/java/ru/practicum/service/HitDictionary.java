@@ -0,0 +1,138 @@
+package ru.practicum.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ViewStatsDto;
+import ru.practicum.model.DictionaryKind;
+import ru.practicum.model.HitCount;
+import ru.practicum.repository.HitDictionaryRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Slf4j
+public class HitDictionary {
+
+    private final HitDictionaryRepository dictionaryRepository;
+    private final TransactionTemplate requiresNew;
+    private final Map<DictionaryKind, Map<String, Integer>> ids = new EnumMap<>(DictionaryKind.class);
+    private final Map<DictionaryKind, Map<Integer, String>> names = new EnumMap<>(DictionaryKind.class);
+
+    public HitDictionary(HitDictionaryRepository dictionaryRepository, PlatformTransactionManager transactionManager) {
+        this.dictionaryRepository = dictionaryRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (DictionaryKind kind : DictionaryKind.values()) {
+            ids.put(kind, new ConcurrentHashMap<>());
+            names.put(kind, new ConcurrentHashMap<>());
+        }
+    }
+
+    public int appId(String app) {
+        return idOf(DictionaryKind.APP, app);
+    }
+
+    public int uriId(String uri) {
+        return idOf(DictionaryKind.URI, uri);
+    }
+
+    public String appName(int appId) {
+        return nameOf(DictionaryKind.APP, appId);
+    }
+
+    public String uriName(int uriId) {
+        return nameOf(DictionaryKind.URI, uriId);
+    }
+
+    public List<Integer> findUriIds(Collection<String> uris) {
+        Map<String, Integer> cache = ids.get(DictionaryKind.URI);
+        List<Integer> result = new ArrayList<>(uris.size());
+        Set<String> missing = new HashSet<>();
+        for (String uri : uris) {
+            Integer id = cache.get(uri);
+            if (id != null) {
+                result.add(id);
+            } else {
+                missing.add(uri);
+            }
+        }
+        if (!missing.isEmpty()) {
+            dictionaryRepository.findIdsByNames(DictionaryKind.URI, missing).forEach((uri, id) -> {
+                remember(DictionaryKind.URI, uri, id);
+                result.add(id);
+            });
+        }
+        return result;
+    }
+
+    public List<ViewStatsDto> toViewStats(Collection<HitCount> counts) {
+        Set<Integer> appIds = new HashSet<>();
+        Set<Integer> uriIds = new HashSet<>();
+        for (HitCount count : counts) {
+            appIds.add(count.appId());
+            uriIds.add(count.uriId());
+        }
+        preload(DictionaryKind.APP, appIds);
+        preload(DictionaryKind.URI, uriIds);
+
+        List<ViewStatsDto> result = new ArrayList<>(counts.size());
+        for (HitCount count : counts) {
+            result.add(new ViewStatsDto(appName(count.appId()), uriName(count.uriId()), count.hits()));
+        }
+        result.sort(Comparator.comparing(ViewStatsDto::getHits).reversed());
+        return result;
+    }
+
+    private int idOf(DictionaryKind kind, String name) {
+        Integer cached = ids.get(kind).get(name);
+        if (cached != null) {
+            return cached;
+        }
+        Integer id = requiresNew.execute(status -> dictionaryRepository.getOrCreate(kind, name));
+        remember(kind, name, id);
+        log.debug("Добавлено значение справочника {}: {} -> {}", kind, name, id);
+        return id;
+    }
+
+    private String nameOf(DictionaryKind kind, int id) {
+        String cached = names.get(kind).get(id);
+        if (cached != null) {
+            return cached;
+        }
+        preload(kind, Set.of(id));
+        String name = names.get(kind).get(id);
+        if (name == null) {
+            throw new IllegalStateException("Значение справочника " + kind + " с id=" + id + " не найдено");
+        }
+        return name;
+    }
+
+    private void preload(DictionaryKind kind, Set<Integer> idsToLoad) {
+        Map<Integer, String> cache = names.get(kind);
+        Set<Integer> missing = new HashSet<>();
+        for (Integer id : idsToLoad) {
+            if (!cache.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            dictionaryRepository.findNamesByIds(kind, missing).forEach((id, name) -> remember(kind, name, id));
+        }
+    }
+
+    private void remember(DictionaryKind kind, String name, int id) {
+        ids.get(kind).put(name, id);
+        names.get(kind).put(id, name);
+    }
+}
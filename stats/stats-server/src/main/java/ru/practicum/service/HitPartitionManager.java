@@ -0,0 +1,203 @@
+package ru.practicum.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.config.PartitionProperties;
+import ru.practicum.model.PartitionInterval;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@Slf4j
+public class HitPartitionManager implements SmartLifecycle {
+
+    public static final int PHASE = 0;
+
+    private static final long ADVISORY_LOCK_KEY = 0x656e64706f696e74L;
+
+    private static final String DEFAULT_PARTITION = "endpoint_hits_default";
+
+    private static final List<String> ROLLUP_TABLES = List.of("hits_minute", "hits_hour", "hits_unique_sketch");
+
+    private static final String SELECT_PARTITIONS = """
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            JOIN pg_class p ON p.oid = i.inhparent
+            WHERE p.relname = 'endpoint_hits'
+            """;
+
+    private static final String CREATE_PARTITION = """
+            CREATE TABLE IF NOT EXISTS %s PARTITION OF endpoint_hits
+            FOR VALUES FROM ('%s') TO ('%s')
+            """;
+
+    private static final String DEFAULT_HAS_ROWS = """
+            SELECT EXISTS (
+                SELECT 1 FROM endpoint_hits_default
+                WHERE "timestamp" >= ? AND "timestamp" < ?
+            )
+            """;
+
+    private static final String MOVE_FROM_DEFAULT = """
+            WITH moved AS (
+                DELETE FROM endpoint_hits_default
+                WHERE "timestamp" >= ? AND "timestamp" < ?
+                RETURNING id, app_id, uri_id, ip, "timestamp"
+            )
+            INSERT INTO endpoint_hits (id, app_id, uri_id, ip, "timestamp")
+            SELECT id, app_id, uri_id, ip, "timestamp" FROM moved
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PartitionProperties properties;
+
+    private volatile boolean running;
+
+    public HitPartitionManager(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               PartitionProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    @Override
+    public void start() {
+        maintain();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    @Scheduled(fixedDelayString = "${stats.partitions.check-interval:PT1H}",
+            initialDelayString = "${stats.partitions.check-interval:PT1H}")
+    public void maintain() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            if (createFuturePartitions()) {
+                expireOldPartitions();
+                expireOldRows();
+            }
+        } catch (Exception e) {
+            log.error("Ошибка обслуживания партиций endpoint_hits", e);
+        }
+    }
+
+    private boolean createFuturePartitions() {
+        PartitionInterval interval = properties.getInterval();
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(SELECT_PARTITIONS, String.class));
+        LocalDate start = interval.floor(LocalDate.now());
+        for (int i = 0; i <= properties.getPremake(); i++) {
+            LocalDate from = start;
+            LocalDate to = interval.next(from);
+            String partition = interval.partitionName(from);
+            if (!existing.contains(partition)
+                    && !inLockedTransaction(() -> createPartition(partition, from, to))) {
+                return false;
+            }
+            start = to;
+        }
+        return true;
+    }
+
+    private void createPartition(String partition, LocalDate from, LocalDate to) {
+        Timestamp fromTs = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp toTs = Timestamp.valueOf(to.atStartOfDay());
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(DEFAULT_HAS_ROWS, Boolean.class, fromTs, toTs))) {
+            jdbcTemplate.execute(CREATE_PARTITION.formatted(partition, from, to));
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE endpoint_hits DETACH PARTITION " + DEFAULT_PARTITION);
+        jdbcTemplate.execute(CREATE_PARTITION.formatted(partition, from, to));
+        int moved = jdbcTemplate.update(MOVE_FROM_DEFAULT, fromTs, toTs);
+        jdbcTemplate.execute("ALTER TABLE endpoint_hits ATTACH PARTITION " + DEFAULT_PARTITION + " DEFAULT");
+        log.info("Партиция {} создана, из партиции по умолчанию перенесено просмотров: {}", partition, moved);
+    }
+
+    private void expireOldPartitions() {
+        PartitionInterval interval = properties.getInterval();
+        LocalDate cutoff = cutoff();
+        List<String> partitions = jdbcTemplate.queryForList(SELECT_PARTITIONS, String.class);
+        for (String partition : partitions) {
+            if (!interval.owns(partition)) {
+                continue;
+            }
+            LocalDate end = interval.next(interval.parseStart(partition));
+            if (end.isAfter(cutoff)) {
+                continue;
+            }
+            inLockedTransaction(() -> {
+                if (properties.isDropExpired()) {
+                    jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                    log.info("Партиция {} удалена по сроку хранения", partition);
+                } else {
+                    jdbcTemplate.execute("ALTER TABLE endpoint_hits DETACH PARTITION " + partition);
+                    log.info("Партиция {} отсоединена по сроку хранения", partition);
+                }
+            });
+        }
+    }
+
+    private void expireOldRows() {
+        Timestamp cutoff = Timestamp.valueOf(cutoff().atStartOfDay());
+        inLockedTransaction(() -> {
+            int deleted = jdbcTemplate.update(
+                    "DELETE FROM " + DEFAULT_PARTITION + " WHERE \"timestamp\" < ?", cutoff);
+            if (deleted > 0) {
+                log.info("Из партиции по умолчанию удалено просмотров по сроку хранения: {}", deleted);
+            }
+        });
+        for (String table : ROLLUP_TABLES) {
+            inLockedTransaction(() -> {
+                int deleted = jdbcTemplate.update("DELETE FROM " + table + " WHERE bucket < ?", cutoff);
+                if (deleted > 0) {
+                    log.info("Из {} удалено строк по сроку хранения: {}", table, deleted);
+                }
+            });
+        }
+    }
+
+    private LocalDate cutoff() {
+        return LocalDate.now().minusDays(properties.getRetention().toDays());
+    }
+
+    private boolean inLockedTransaction(Runnable action) {
+        Boolean done = transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)",
+                    Boolean.class, ADVISORY_LOCK_KEY);
+            if (!Boolean.TRUE.equals(locked)) {
+                log.debug("Обслуживание партиций выполняется другим экземпляром");
+                return false;
+            }
+            action.run();
+            return true;
+        });
+        return Boolean.TRUE.equals(done);
+    }
+}
@@ -0,0 +1,159 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.config.SketchProperties;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupKey;
+import ru.practicum.repository.HitSketchRepository;
+import ru.practicum.sketch.SketchDelta;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+@Component
+@Slf4j
+public class HitSketchAccumulator {
+
+    private final HitSketchRepository hitSketchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SketchProperties properties;
+    private final Object lock = new Object();
+    private final Timer flushTimer;
+    private final Counter flushErrors;
+
+    private Map<RollupKey, SketchDelta> pending = new HashMap<>();
+    private volatile boolean running;
+    private Thread flusher;
+
+    public HitSketchAccumulator(HitSketchRepository hitSketchRepository,
+                                PlatformTransactionManager transactionManager,
+                                SketchProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.hitSketchRepository = hitSketchRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        Gauge.builder("stats.sketches.pending", this, HitSketchAccumulator::pendingKeys)
+                .description("Количество HyperLogLog-скетчей, ожидающих записи в БД")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("stats.sketches.flush")
+                .description("Время записи накопленных скетчей в БД")
+                .register(meterRegistry);
+        this.flushErrors = meterRegistry.counter("stats.sketches.flush.errors");
+    }
+
+    public void add(List<EndpointHit> hits) {
+        Map<RollupKey, SketchDelta> sketches = new HashMap<>();
+        for (EndpointHit hit : hits) {
+            RollupKey key = new RollupKey(hit.getAppId(), hit.getUriId(),
+                    RollupGranularity.HOUR.floor(hit.getTimestamp()));
+            sketches.computeIfAbsent(key, k -> new SketchDelta()).add(hit.getIp());
+        }
+        int size;
+        synchronized (lock) {
+            mergeInto(pending, sketches);
+            size = pending.size();
+        }
+        if (size >= properties.getMaxPendingKeys() && flusher != null) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    public void flush() {
+        Map<RollupKey, SketchDelta> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+        }
+        try {
+            flushTimer.record(() -> transactionTemplate.executeWithoutResult(status ->
+                    hitSketchRepository.merge(batch)));
+            log.debug("Записаны скетчи уникальных просмотров: {}", batch.size());
+        } catch (RuntimeException e) {
+            flushErrors.increment();
+            log.error("Не удалось записать {} скетчей уникальных просмотров, повтор при следующей выгрузке",
+                    batch.size(), e);
+            synchronized (lock) {
+                mergeInto(pending, batch);
+            }
+        }
+    }
+
+    /**
+     * Досчитывает скетчи часов, просмотры которых были закоммичены, но не успели попасть в скетч из-за
+     * падения между коммитом и выгрузкой. Каждый час восстанавливается в отдельной транзакции.
+     */
+    public void rebuildUnsketchedHours() {
+        LocalDateTime since = RollupGranularity.HOUR.floor(LocalDateTime.now().minus(properties.getRebuildLookback()));
+        List<RollupKey> keys = hitSketchRepository.findUnsketchedHours(since);
+        if (keys.isEmpty()) {
+            return;
+        }
+        log.info("Восстановление скетчей уникальных просмотров по сырым данным: {} часов", keys.size());
+        for (RollupKey key : keys) {
+            transactionTemplate.executeWithoutResult(status -> hitSketchRepository.rebuild(key));
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (properties.isRebuildOnStartup()) {
+            try {
+                rebuildUnsketchedHours();
+            } catch (RuntimeException e) {
+                log.error("Не удалось восстановить скетчи уникальных просмотров, оценки могут быть занижены", e);
+            }
+        }
+        running = true;
+        flusher = new Thread(this::runFlushLoop, "hit-sketch-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(properties.getShutdownTimeout().toMillis());
+        flush();
+    }
+
+    private void runFlushLoop() {
+        long intervalNanos = properties.getFlushInterval().toNanos();
+        while (running) {
+            LockSupport.parkNanos(this, intervalNanos);
+            if (!running) {
+                return;
+            }
+            flush();
+        }
+    }
+
+    private int pendingKeys() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    private static void mergeInto(Map<RollupKey, SketchDelta> target, Map<RollupKey, SketchDelta> source) {
+        source.forEach((key, delta) -> target.merge(key, delta, (existing, added) -> {
+            existing.merge(added);
+            return existing;
+        }));
+    }
+}
@@ -0,0 +1,179 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.config.WriteBehindProperties;
+import ru.practicum.model.EndpointHit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Slf4j
+public class HitWriteBehindBuffer {
+
+    private final WriteBehindProperties properties;
+    private final HitWriter hitWriter;
+    private final BlockingQueue<EndpointHit> queue;
+    private final Timer flushTimer;
+    private final Counter overflowCounter;
+    private final Counter flushErrorCounter;
+    private final Counter flushRetryCounter;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public HitWriteBehindBuffer(WriteBehindProperties properties, HitWriter hitWriter, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hitWriter = hitWriter;
+        this.queue = new ArrayBlockingQueue<>(properties.getCapacity());
+        Gauge.builder("stats.write_behind.queue.depth", queue, BlockingQueue::size)
+                .description("Количество просмотров, ожидающих записи в БД")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("stats.write_behind.flush")
+                .description("Время записи пакета просмотров в БД")
+                .register(meterRegistry);
+        this.overflowCounter = Counter.builder("stats.write_behind.dropped")
+                .tag("reason", "overflow")
+                .register(meterRegistry);
+        this.flushErrorCounter = Counter.builder("stats.write_behind.dropped")
+                .tag("reason", "flush_error")
+                .register(meterRegistry);
+        this.flushRetryCounter = Counter.builder("stats.write_behind.flush.retries")
+                .description("Повторные попытки записи пакета просмотров")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public boolean offer(EndpointHit hit) {
+        if (queue.offer(hit)) {
+            return true;
+        }
+        overflowCounter.increment();
+        return false;
+    }
+
+    public void recordOverflow(int dropped) {
+        overflowCounter.increment(dropped);
+    }
+
+    public int remainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::runFlushLoop, "hit-write-behind-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Отложенная запись просмотров включена: емкость {}, пакет {}, интервал {}",
+                properties.getCapacity(), properties.getBatchSize(), properties.getFlushInterval());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        flusher.join(properties.getShutdownTimeout().toMillis());
+        if (flusher.isAlive()) {
+            log.warn("Не удалось дождаться записи буфера просмотров, осталось {}", queue.size());
+        } else {
+            log.info("Буфер просмотров записан при остановке");
+        }
+    }
+
+    private void runFlushLoop() {
+        long intervalNanos = properties.getFlushInterval().toNanos();
+        int batchSize = properties.getBatchSize();
+        List<EndpointHit> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                EndpointHit first = queue.poll(intervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + intervalNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || !running) {
+                        break;
+                    }
+                    EndpointHit next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                drainRemaining(batch);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void drainRemaining(List<EndpointHit> batch) {
+        do {
+            flush(batch);
+            batch.clear();
+        } while (queue.drainTo(batch, properties.getBatchSize()) > 0);
+    }
+
+    private void flush(List<EndpointHit> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long backoff = properties.getFlushRetryBackoff().toMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                flushTimer.record(() -> hitWriter.write(batch));
+                log.debug("Записан пакет просмотров: {}", batch.size());
+                return;
+            } catch (Exception e) {
+                if (attempt >= properties.getMaxFlushAttempts()) {
+                    flushErrorCounter.increment(batch.size());
+                    log.error("Не удалось записать пакет из {} просмотров после {} попыток, пакет отброшен",
+                            batch.size(), attempt, e);
+                    return;
+                }
+                flushRetryCounter.increment();
+                log.warn("Не удалось записать пакет из {} просмотров (попытка {}), повтор через {} мс",
+                        batch.size(), attempt, backoff, e);
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                flushErrorCounter.increment(batch.size());
+                log.error("Запись пакета из {} просмотров прервана, пакет отброшен", batch.size());
+                return;
+            }
+            backoff = Math.min(backoff * 2, properties.getMaxFlushRetryBackoff().toMillis());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupKey;
+import ru.practicum.repository.HitRollupRepository;
+import ru.practicum.repository.StatsRepository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class HitWriter {
+
+    private final StatsRepository statsRepository;
+    private final HitRollupRepository hitRollupRepository;
+    private final HitSketchAccumulator hitSketchAccumulator;
+
+    @Transactional
+    public void write(List<EndpointHit> hits) {
+        if (hits.isEmpty()) {
+            return;
+        }
+        statsRepository.saveBatch(hits);
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            hitRollupRepository.increment(granularity, aggregate(hits, granularity));
+        }
+        List<EndpointHit> committed = List.copyOf(hits);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                hitSketchAccumulator.add(committed);
+            }
+        });
+    }
+
+    private Map<RollupKey, Long> aggregate(List<EndpointHit> hits, RollupGranularity granularity) {
+        Map<RollupKey, Long> counts = new HashMap<>();
+        for (EndpointHit hit : hits) {
+            RollupKey key = new RollupKey(hit.getAppId(), hit.getUriId(), granularity.floor(hit.getTimestamp()));
+            counts.merge(key, 1L, Long::sum);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.stereotype.Component;
+import ru.practicum.config.RecentHitsProperties;
+import ru.practicum.memory.LongCounterMap;
+import ru.practicum.memory.RecentHitRing;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.HitCount;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@Slf4j
+public class RecentHitsStore {
+
+    private final RecentHitsProperties properties;
+    private final RecentHitRing ring;
+    private final ObjectProvider<DiscoveryClient> discoveryClient;
+    private final String applicationName;
+
+    public RecentHitsStore(RecentHitsProperties properties,
+                           ObjectProvider<DiscoveryClient> discoveryClient,
+                           @Value("${spring.application.name}") String applicationName) {
+        this.properties = properties;
+        this.discoveryClient = discoveryClient;
+        this.applicationName = applicationName;
+        if (properties.isEnabled()) {
+            long capacity = properties.getMemoryBudget().toBytes() / RecentHitRing.BYTES_PER_HIT;
+            this.ring = new RecentHitRing((int) Math.min(capacity, 1 << 30), toEpochSecond(LocalDateTime.now()));
+            log.info("Хранилище недавних просмотров включено: {} записей, окно {}",
+                    ring.capacity(), properties.getWindow());
+        } else {
+            this.ring = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return ring != null;
+    }
+
+    /**
+     * Кольцо хранит только просмотры, принятые этим экземпляром, поэтому отвечать из памяти можно,
+     * лишь пока в реестре не больше одного экземпляра stats-server.
+     */
+    public boolean canServe() {
+        if (ring == null) {
+            return false;
+        }
+        DiscoveryClient client = discoveryClient.getIfAvailable();
+        if (client == null) {
+            return true;
+        }
+        int instances = client.getInstances(applicationName).size();
+        if (instances > 1) {
+            log.debug("Запрос не обслуживается из памяти: зарегистрировано экземпляров {}", instances);
+            return false;
+        }
+        return true;
+    }
+
+    public void record(EndpointHit hit) {
+        if (ring != null) {
+            ring.add(hit.getAppId(), hit.getUriId(), toEpochSecond(hit.getTimestamp()), ipKey(hit.getIp()));
+        }
+    }
+
+    public void record(List<EndpointHit> hits) {
+        if (ring != null) {
+            hits.forEach(this::record);
+        }
+    }
+
+    public LocalDateTime coveredFrom() {
+        LocalDateTime windowStart = LocalDateTime.now().minus(properties.getWindow()).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime ringStart = LocalDateTime.ofEpochSecond(ring.coveredFrom(), 0, ZoneOffset.UTC);
+        return ringStart.isAfter(windowStart) ? ringStart : windowStart;
+    }
+
+    public List<HitCount> count(LocalDateTime start, LocalDateTime end, List<Integer> uriIds, boolean unique) {
+        LongCounterMap counts = new LongCounterMap(uriIds == null ? 256 : uriIds.size());
+        int[] uriFilter = uriIds == null ? null : uriIds.stream().mapToInt(Integer::intValue).toArray();
+        if (unique) {
+            ring.countDistinctIps(toEpochSecond(start), toEpochSecond(end), uriFilter, counts);
+        } else {
+            ring.count(toEpochSecond(start), toEpochSecond(end), uriFilter, counts);
+        }
+        List<HitCount> result = new ArrayList<>(counts.size());
+        counts.forEach((key, hits) -> result.add(new HitCount((int) (key >>> 32), (int) key, hits)));
+        return result;
+    }
+
+    private static long toEpochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long ipKey(byte[] ip) {
+        ByteBuffer buffer = ByteBuffer.wrap(ip);
+        if (ip.length == Integer.BYTES) {
+            return buffer.getInt() & 0xffffffffL;
+        }
+        return buffer.getLong() * 31 + buffer.getLong();
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.model.AppUri;
+import ru.practicum.model.HitCount;
+import ru.practicum.model.QuerySegment;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.repository.HitRollupRepository;
+import ru.practicum.repository.HitSketchRepository;
+import ru.practicum.repository.StatsRepository;
+import ru.practicum.sketch.HyperLogLog;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+@Component
+@RequiredArgsConstructor
+public class StatsQueryPlanner {
+
+    private static final RollupGranularity[] LEVELS = {RollupGranularity.MINUTE, RollupGranularity.HOUR};
+
+    private final StatsRepository statsRepository;
+    private final HitRollupRepository hitRollupRepository;
+    private final HitSketchRepository hitSketchRepository;
+
+    @Transactional(readOnly = true)
+    public List<HitCount> countHits(LocalDateTime start, LocalDateTime end, List<Integer> uriIds) {
+        Map<AppUri, Long> counts = new HashMap<>();
+        for (QuerySegment segment : plan(start, end)) {
+            if (segment.isRaw()) {
+                merge(statsRepository.countHitsInRange(segment.from(), segment.to(), uriIds), counts);
+            } else {
+                merge(hitRollupRepository.findCounts(segment.granularity(), segment.from(), segment.to(), uriIds), counts);
+            }
+        }
+        return toHitCounts(counts);
+    }
+
+    public List<QuerySegment> plan(LocalDateTime start, LocalDateTime end) {
+        List<QuerySegment> segments = new ArrayList<>();
+        collect(start, end.plusSeconds(1), LEVELS.length - 1, segments);
+        return segments;
+    }
+
+    @Transactional(readOnly = true)
+    public List<HitCount> estimateUniqueHits(LocalDateTime start, LocalDateTime end, List<Integer> uriIds) {
+        Map<AppUri, HyperLogLog> sketches = new HashMap<>();
+        LocalDateTime endExclusive = end.plusSeconds(1);
+        LocalDateTime alignedFrom = RollupGranularity.HOUR.ceil(start);
+        LocalDateTime alignedTo = RollupGranularity.HOUR.floor(endExclusive);
+
+        BiConsumer<AppUri, byte[]> addIp = (key, ip) -> sketches.computeIfAbsent(key, k -> new HyperLogLog()).add(ip);
+        if (alignedFrom.isBefore(alignedTo)) {
+            hitSketchRepository.forEachSketch(alignedFrom, alignedTo, uriIds,
+                    (key, sketch) -> sketches.computeIfAbsent(key, k -> new HyperLogLog()).merge(sketch));
+            hitSketchRepository.forEachDistinctIp(start, alignedFrom, uriIds, addIp);
+            hitSketchRepository.forEachDistinctIp(alignedTo, endExclusive, uriIds, addIp);
+        } else {
+            hitSketchRepository.forEachDistinctIp(start, endExclusive, uriIds, addIp);
+        }
+
+        Map<AppUri, Long> counts = new HashMap<>();
+        sketches.forEach((key, sketch) -> counts.put(key, sketch.estimate()));
+        return toHitCounts(counts);
+    }
+
+    private void collect(LocalDateTime from, LocalDateTime to, int level, List<QuerySegment> segments) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        if (level < 0) {
+            segments.add(new QuerySegment(null, from, to));
+            return;
+        }
+        RollupGranularity granularity = LEVELS[level];
+        LocalDateTime alignedFrom = granularity.ceil(from);
+        LocalDateTime alignedTo = granularity.floor(to);
+        if (!alignedFrom.isBefore(alignedTo)) {
+            collect(from, to, level - 1, segments);
+            return;
+        }
+        segments.add(new QuerySegment(granularity, alignedFrom, alignedTo));
+        collect(from, alignedFrom, level - 1, segments);
+        collect(alignedTo, to, level - 1, segments);
+    }
+
+    private static List<HitCount> toHitCounts(Map<AppUri, Long> counts) {
+        List<HitCount> result = new ArrayList<>(counts.size());
+        counts.forEach((key, hits) -> result.add(new HitCount(key.appId(), key.uriId(), hits)));
+        return result;
+    }
+
+    private void merge(List<HitCount> stats, Map<AppUri, Long> counts) {
+        for (HitCount stat : stats) {
+            counts.merge(new AppUri(stat.appId(), stat.uriId()), stat.hits(), Long::sum);
+        }
+    }
+}
@@ -1,13 +1,27 @@
 package ru.practicum.service;
 
 import ru.practicum.EndpointHitDto;
+import ru.practicum.HitBatchResultDto;
+import ru.practicum.TopUriDto;
 import ru.practicum.ViewStatsDto;
+import ru.practicum.model.StatsAccuracy;
+import ru.practicum.model.TopWindow;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface StatsService {
 
     void save(EndpointHitDto endpointHitDto);
 
-    List<ViewStatsDto> getStats(String start, String end, List<String> uris, boolean unique);
+    HitBatchResultDto saveAll(List<EndpointHitDto> endpointHitDtos);
+
+    void validateRange(String start, String end);
+
+    List<ViewStatsDto> getStats(String start, String end, List<String> uris, boolean unique, StatsAccuracy accuracy);
+
+    void streamStats(String start, String end, List<String> uris, boolean unique, StatsAccuracy accuracy,
+                     Consumer<ViewStatsDto> consumer);
+
+    List<TopUriDto> getTopUris(TopWindow window, int k);
 }
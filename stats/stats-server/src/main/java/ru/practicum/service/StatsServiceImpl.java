@@ -1,18 +1,38 @@
 package ru.practicum.service;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.EndpointHitDto;
+import ru.practicum.HitBatchResultDto;
+import ru.practicum.HitRejectDto;
+import ru.practicum.TopUriDto;
 import ru.practicum.ViewStatsDto;
+import ru.practicum.config.IngestProperties;
+import ru.practicum.config.WriteBehindProperties;
+import ru.practicum.exception.HitBufferOverflowException;
 import ru.practicum.mapper.StatsMapper;
+import ru.practicum.model.AppUri;
 import ru.practicum.model.EndpointHit;
+import ru.practicum.model.HitCount;
+import ru.practicum.model.StatsAccuracy;
+import ru.practicum.model.TopWindow;
 import ru.practicum.repository.StatsRepository;
+import ru.practicum.repository.StatsStreamRepository;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -21,8 +41,17 @@ public class StatsServiceImpl implements StatsService {
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     private final StatsRepository statsRepository;
+    private final StatsStreamRepository statsStreamRepository;
+    private final StatsQueryPlanner statsQueryPlanner;
+    private final HitWriter hitWriter;
+    private final HitDictionary hitDictionary;
+    private final RecentHitsStore recentHitsStore;
+    private final TopUrisStore topUrisStore;
+    private final HitWriteBehindBuffer writeBehindBuffer;
+    private final Validator validator;
+    private final IngestProperties ingestProperties;
+    private final WriteBehindProperties writeBehindProperties;
 
-    @Transactional
     @Override
     public void save(EndpointHitDto endpointHitDto) {
         log.debug("Попытка сохранить просмотр: {}", endpointHitDto);
@@ -30,22 +59,201 @@ public class StatsServiceImpl implements StatsService {
             log.warn("Невозможно сохранить просмотр — параметр EndpointHitDto равен null.");
             throw new IllegalArgumentException("Параметр EndpointHitDto не может быть null.");
         }
-        EndpointHit endpointHit = StatsMapper.toEntity(endpointHitDto);
-        statsRepository.save(endpointHit);
-        log.info("Просмотр успешно сохранен");
+        EndpointHit endpointHit = toEntity(endpointHitDto);
+        if (writeBehindBuffer.isEnabled()) {
+            if (!writeBehindBuffer.offer(endpointHit)) {
+                throw overflow();
+            }
+            recordInMemory(endpointHit);
+            return;
+        }
+        hitWriter.write(List.of(endpointHit));
+        recordInMemory(endpointHit);
+        log.debug("Просмотр успешно сохранен");
+    }
+
+    @Override
+    public HitBatchResultDto saveAll(List<EndpointHitDto> endpointHitDtos) {
+        if (endpointHitDtos == null) {
+            throw new IllegalArgumentException("Список просмотров не может быть null.");
+        }
+        if (endpointHitDtos.size() > ingestProperties.getMaxHitsPerRequest()) {
+            throw new IllegalArgumentException("Слишком много просмотров в одном запросе: " + endpointHitDtos.size() +
+                    ", максимум " + ingestProperties.getMaxHitsPerRequest());
+        }
+
+        List<EndpointHit> accepted = new ArrayList<>(endpointHitDtos.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(endpointHitDtos.size());
+        List<HitRejectDto> rejected = new ArrayList<>();
+        for (int i = 0; i < endpointHitDtos.size(); i++) {
+            EndpointHitDto dto = endpointHitDtos.get(i);
+            String reason = validate(dto);
+            if (reason != null) {
+                rejected.add(new HitRejectDto(i, reason));
+                continue;
+            }
+            try {
+                accepted.add(toEntity(dto));
+                acceptedIndexes.add(i);
+            } catch (IllegalArgumentException e) {
+                rejected.add(new HitRejectDto(i, e.getMessage()));
+            }
+        }
+
+        if (writeBehindBuffer.isEnabled()) {
+            enqueue(accepted, acceptedIndexes, rejected);
+        } else {
+            hitWriter.write(accepted);
+            accepted.forEach(this::recordInMemory);
+        }
+        log.debug("Пакет просмотров сохранен: принято {}, отклонено {}",
+                endpointHitDtos.size() - rejected.size(), rejected.size());
+        return new HitBatchResultDto(endpointHitDtos.size() - rejected.size(), rejected);
     }
 
     @Override
-    public List<ViewStatsDto> getStats(String start, String end, List<String> uris, boolean unique) {
-        LocalDateTime startTime = LocalDateTime.parse(start, FORMATTER);
-        LocalDateTime endTime = LocalDateTime.parse(end, FORMATTER);
+    public void validateRange(String start, String end) {
+        checkRange(parseTime(start), parseTime(end));
+    }
+
+    @Override
+    public List<ViewStatsDto> getStats(String start, String end, List<String> uris, boolean unique,
+                                       StatsAccuracy accuracy) {
+        LocalDateTime startTime = parseTime(start);
+        LocalDateTime endTime = parseTime(end);
+        checkRange(startTime, endTime);
+
+        List<Integer> uriIds = resolveUriIds(uris);
+        if (uriIds != null && uriIds.isEmpty()) {
+            return List.of();
+        }
+
+        if (recentHitsStore.canServe()) {
+            LocalDateTime coveredFrom = recentHitsStore.coveredFrom();
+            if (!startTime.isBefore(coveredFrom)) {
+                return hitDictionary.toViewStats(recentHitsStore.count(startTime, endTime, uriIds, unique));
+            }
+            if (!unique && !endTime.isBefore(coveredFrom)) {
+                List<HitCount> older = statsQueryPlanner.countHits(startTime, coveredFrom.minusSeconds(1), uriIds);
+                List<HitCount> recent = recentHitsStore.count(coveredFrom, endTime, uriIds, false);
+                return hitDictionary.toViewStats(sum(older, recent));
+            }
+        }
+
+        List<HitCount> counts;
+        if (!unique) {
+            counts = statsQueryPlanner.countHits(startTime, endTime, uriIds);
+        } else if (accuracy == StatsAccuracy.APPROXIMATE) {
+            counts = statsQueryPlanner.estimateUniqueHits(startTime, endTime, uriIds);
+        } else {
+            counts = statsRepository.findUniqueStats(startTime, endTime, uriIds);
+        }
+        return hitDictionary.toViewStats(counts);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamStats(String start, String end, List<String> uris, boolean unique, StatsAccuracy accuracy,
+                            Consumer<ViewStatsDto> consumer) {
+        LocalDateTime startTime = parseTime(start);
+        LocalDateTime endTime = parseTime(end);
+        checkRange(startTime, endTime);
+
+        boolean servedFromMemory = recentHitsStore.canServe() && !startTime.isBefore(recentHitsStore.coveredFrom());
+        if (servedFromMemory || (unique && accuracy == StatsAccuracy.APPROXIMATE)) {
+            getStats(start, end, uris, unique, accuracy).forEach(consumer);
+            return;
+        }
+
+        List<Integer> uriIds = resolveUriIds(uris);
+        if (uriIds != null && uriIds.isEmpty()) {
+            return;
+        }
+        if (unique) {
+            statsStreamRepository.streamUniqueHits(startTime, endTime.plusSeconds(1), uriIds, consumer);
+        } else {
+            statsStreamRepository.streamHits(statsQueryPlanner.plan(startTime, endTime), uriIds, consumer);
+        }
+    }
+
+    private LocalDateTime parseTime(String value) {
+        try {
+            return LocalDateTime.parse(value, FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Неверный формат даты: " + value, e);
+        }
+    }
 
+    private void checkRange(LocalDateTime startTime, LocalDateTime endTime) {
         if (endTime.isBefore(startTime)) {
             throw new IllegalArgumentException("Начало должно быть до окончания");
         }
+    }
+
+    private List<Integer> resolveUriIds(List<String> uris) {
+        if (uris == null || uris.isEmpty()) {
+            return null;
+        }
+        return hitDictionary.findUriIds(uris);
+    }
 
-        return unique ?
-                statsRepository.findUniqueStats(startTime, endTime, uris)
-                : statsRepository.findAllStats(startTime, endTime, uris);
+    private List<HitCount> sum(List<HitCount> first, List<HitCount> second) {
+        Map<AppUri, Long> totals = new HashMap<>();
+        for (HitCount count : first) {
+            totals.merge(new AppUri(count.appId(), count.uriId()), count.hits(), Long::sum);
+        }
+        for (HitCount count : second) {
+            totals.merge(new AppUri(count.appId(), count.uriId()), count.hits(), Long::sum);
+        }
+        List<HitCount> result = new ArrayList<>(totals.size());
+        totals.forEach((key, hits) -> result.add(new HitCount(key.appId(), key.uriId(), hits)));
+        return result;
+    }
+
+    @Override
+    public List<TopUriDto> getTopUris(TopWindow window, int k) {
+        return topUrisStore.top(window, k);
+    }
+
+    private void recordInMemory(EndpointHit hit) {
+        recentHitsStore.record(hit);
+        topUrisStore.record(hit);
+    }
+
+    private EndpointHit toEntity(EndpointHitDto dto) {
+        return StatsMapper.toEntity(dto, hitDictionary.appId(dto.getApp()), hitDictionary.uriId(dto.getUri()));
+    }
+
+    private void enqueue(List<EndpointHit> accepted, List<Integer> acceptedIndexes, List<HitRejectDto> rejected) {
+        if (writeBehindBuffer.remainingCapacity() < accepted.size()) {
+            writeBehindBuffer.recordOverflow(accepted.size());
+            throw overflow();
+        }
+        for (int i = 0; i < accepted.size(); i++) {
+            if (writeBehindBuffer.offer(accepted.get(i))) {
+                recordInMemory(accepted.get(i));
+            } else {
+                rejected.add(new HitRejectDto(acceptedIndexes.get(i), "Буфер просмотров переполнен"));
+            }
+        }
+    }
+
+    private HitBufferOverflowException overflow() {
+        return new HitBufferOverflowException("Буфер просмотров переполнен, повторите запрос позже",
+                writeBehindProperties.getRetryAfter());
+    }
+
+    private String validate(EndpointHitDto dto) {
+        if (dto == null) {
+            return "Просмотр не может быть null";
+        }
+        Set<ConstraintViolation<EndpointHitDto>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
     }
 }
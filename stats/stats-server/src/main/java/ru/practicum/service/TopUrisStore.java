@@ -0,0 +1,140 @@
+package ru.practicum.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.TopUriDto;
+import ru.practicum.config.TopUrisProperties;
+import ru.practicum.memory.HeavyHitterWindow;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.TopWindow;
+import ru.practicum.repository.HitTopSketchRepository;
+import ru.practicum.sketch.SpaceSaving;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Slf4j
+public class TopUrisStore {
+
+    private final TopUrisProperties properties;
+    private final HitTopSketchRepository sketchRepository;
+    private final HitDictionary hitDictionary;
+    private final Map<TopWindow, HeavyHitterWindow> windows = new EnumMap<>(TopWindow.class);
+
+    public TopUrisStore(TopUrisProperties properties,
+                        HitTopSketchRepository sketchRepository,
+                        HitDictionary hitDictionary) {
+        this.properties = properties;
+        this.sketchRepository = sketchRepository;
+        this.hitDictionary = hitDictionary;
+        if (properties.isEnabled()) {
+            for (TopWindow window : TopWindow.values()) {
+                windows.put(window, new HeavyHitterWindow(window.getBucket().toSeconds(), window.getBuckets(),
+                        properties.getCapacity()));
+            }
+            log.info("Подсчет популярных URI включен: {} счетчиков на интервал", properties.getCapacity());
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public void record(EndpointHit hit) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long epochSecond = toEpochSecond(hit.getTimestamp());
+        long key = ((long) hit.getAppId() << 32) | (hit.getUriId() & 0xffffffffL);
+        for (HeavyHitterWindow window : windows.values()) {
+            window.add(epochSecond, key);
+        }
+    }
+
+    public List<TopUriDto> top(TopWindow window, int k) {
+        if (!properties.isEnabled()) {
+            throw new IllegalArgumentException("Подсчет популярных URI отключен");
+        }
+        if (k <= 0 || k > properties.getMaxK()) {
+            throw new IllegalArgumentException("Параметр k должен быть от 1 до " + properties.getMaxK());
+        }
+        List<SpaceSaving.Counter> counters = windows.get(window).top(toEpochSecond(LocalDateTime.now()), k);
+        List<TopUriDto> result = new ArrayList<>(counters.size());
+        for (SpaceSaving.Counter counter : counters) {
+            result.add(new TopUriDto(hitDictionary.appName((int) (counter.key() >>> 32)),
+                    hitDictionary.uriName((int) counter.key()), counter.count(), counter.error()));
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<TopWindow, HeavyHitterWindow> entry : windows.entrySet()) {
+            TopWindow window = entry.getKey();
+            HeavyHitterWindow heavyHitters = entry.getValue();
+            try {
+                sketchRepository.forEachSince(window, windowStart(window, now), (bucket, bytes) ->
+                        heavyHitters.restore(toEpochSecond(bucket), SpaceSaving.fromBytes(bytes)));
+            } catch (RuntimeException e) {
+                log.error("Не удалось восстановить снимок популярных URI для интервала {}", window, e);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stats.top.snapshot-interval:PT1M}",
+            initialDelayString = "${stats.top.snapshot-interval:PT1M}")
+    public void snapshot() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<TopWindow, HeavyHitterWindow> entry : windows.entrySet()) {
+            TopWindow window = entry.getKey();
+            HeavyHitterWindow heavyHitters = entry.getValue();
+            Map<LocalDateTime, byte[]> dirty = new HashMap<>();
+            heavyHitters.drainDirty(toEpochSecond(now), (bucketStart, bytes) ->
+                    dirty.put(LocalDateTime.ofEpochSecond(bucketStart, 0, ZoneOffset.UTC), bytes));
+            try {
+                if (!dirty.isEmpty()) {
+                    sketchRepository.save(window, dirty);
+                }
+            } catch (RuntimeException e) {
+                dirty.keySet().forEach(bucket -> heavyHitters.markDirty(toEpochSecond(bucket)));
+                log.error("Не удалось сохранить снимок популярных URI для интервала {}", window, e);
+                continue;
+            }
+            try {
+                sketchRepository.deleteBefore(window, windowStart(window, now));
+            } catch (RuntimeException e) {
+                log.error("Не удалось удалить устаревшие снимки популярных URI для интервала {}", window, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        snapshot();
+    }
+
+    private static LocalDateTime windowStart(TopWindow window, LocalDateTime now) {
+        return now.minus(window.getBucket().multipliedBy(window.getBuckets()));
+    }
+
+    private static long toEpochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,124 @@
+package ru.practicum.sketch;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog на 4096 регистрах. Скетч с небольшим числом ненулевых регистров сериализуется разреженно,
+ * чтобы часовой скетч редко посещаемого URI не занимал в базе 4 КБ.
+ */
+public class HyperLogLog {
+
+    public static final int PRECISION = 12;
+    public static final int REGISTERS = 1 << PRECISION;
+
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+    private static final byte SPARSE = 1;
+    private static final int SPARSE_ENTRY = 3;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTERS];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    /**
+     * Плотная форма - ровно {@link #REGISTERS} байт; разреженная - байт-признак и пары (номер регистра
+     * в двух байтах, ранг в одном), всегда короче плотной, поэтому формы различаются по длине.
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes.length == REGISTERS) {
+            return new HyperLogLog(Arrays.copyOf(bytes, REGISTERS));
+        }
+        if (bytes.length == 0 || bytes[0] != SPARSE || (bytes.length - 1) % SPARSE_ENTRY != 0) {
+            throw new IllegalArgumentException("Некорректный размер HyperLogLog: " + bytes.length);
+        }
+        byte[] registers = new byte[REGISTERS];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+        while (buffer.hasRemaining()) {
+            int index = Short.toUnsignedInt(buffer.getShort());
+            if (index >= REGISTERS) {
+                throw new IllegalArgumentException("Некорректный номер регистра HyperLogLog: " + index);
+            }
+            registers[index] = buffer.get();
+        }
+        return new HyperLogLog(registers);
+    }
+
+    public byte[] toBytes() {
+        int nonZero = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                nonZero++;
+            }
+        }
+        int sparseSize = 1 + nonZero * SPARSE_ENTRY;
+        if (sparseSize >= REGISTERS) {
+            return Arrays.copyOf(registers, REGISTERS);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(sparseSize).put(SPARSE);
+        for (int i = 0; i < REGISTERS; i++) {
+            if (registers[i] != 0) {
+                buffer.putShort((short) i).put(registers[i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    public void add(byte[] value) {
+        addHash(hash(value));
+    }
+
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        long rest = hash << PRECISION;
+        byte rank = (byte) Math.min(Long.numberOfLeadingZeros(rest) + 1, Long.SIZE - PRECISION + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    static long hash(byte[] bytes) {
+        long hash = FNV_OFFSET;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.sketch;
+
+/**
+ * Приращение часового скетча уникальных IP вместе с числом вошедших в него просмотров. Счётчик
+ * сохраняется рядом со скетчем и сверяется с hits_hour при старте: расхождение означает, что
+ * часть просмотров не успела попасть в скетч до остановки сервиса.
+ */
+public class SketchDelta {
+
+    private final HyperLogLog sketch = new HyperLogLog();
+    private long hits;
+
+    public void add(byte[] ip) {
+        sketch.add(ip);
+        hits++;
+    }
+
+    public void merge(SketchDelta other) {
+        sketch.merge(other.sketch);
+        hits += other.hits;
+    }
+
+    public HyperLogLog getSketch() {
+        return sketch;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+}
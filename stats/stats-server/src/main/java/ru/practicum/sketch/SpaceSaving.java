@@ -0,0 +1,185 @@
+package ru.practicum.sketch;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SpaceSaving {
+
+    private final int capacity;
+    private final long[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<Long, Integer> positions;
+    private int size;
+
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Емкость Space-Saving должна быть положительной");
+        }
+        this.capacity = capacity;
+        this.keys = new long[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long minCount() {
+        return size < capacity ? 0 : counts[0];
+    }
+
+    public void offer(long key) {
+        offer(key, 1);
+    }
+
+    public void offer(long key, long increment) {
+        Integer position = positions.get(key);
+        if (position != null) {
+            counts[position] += increment;
+            siftDown(position);
+            return;
+        }
+        if (size < capacity) {
+            put(key, increment, 0);
+            return;
+        }
+        long min = counts[0];
+        positions.remove(keys[0]);
+        keys[0] = key;
+        counts[0] = min + increment;
+        errors[0] = min;
+        positions.put(key, 0);
+        siftDown(0);
+    }
+
+    public List<Counter> top(int k) {
+        List<Counter> counters = counters();
+        counters.sort(Comparator.comparingLong(Counter::count).reversed());
+        return counters.size() > k ? new ArrayList<>(counters.subList(0, k)) : counters;
+    }
+
+    public List<Counter> counters() {
+        List<Counter> counters = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            counters.add(new Counter(keys[i], counts[i], errors[i]));
+        }
+        return counters;
+    }
+
+    public static SpaceSaving merge(int capacity, List<SpaceSaving> sketches) {
+        Map<Long, long[]> merged = new HashMap<>();
+        long totalMin = 0;
+        for (SpaceSaving sketch : sketches) {
+            long min = sketch.minCount();
+            totalMin += min;
+            for (int i = 0; i < sketch.size; i++) {
+                long[] state = merged.computeIfAbsent(sketch.keys[i], key -> new long[3]);
+                state[0] += sketch.counts[i];
+                state[1] += sketch.errors[i];
+                state[2] += min;
+            }
+        }
+        List<Counter> counters = new ArrayList<>(merged.size());
+        for (Map.Entry<Long, long[]> entry : merged.entrySet()) {
+            long[] state = entry.getValue();
+            long missing = totalMin - state[2];
+            counters.add(new Counter(entry.getKey(), state[0] + missing, state[1] + missing));
+        }
+        counters.sort(Comparator.comparingLong(Counter::count).reversed());
+        SpaceSaving result = new SpaceSaving(capacity);
+        for (int i = 0; i < Math.min(capacity, counters.size()); i++) {
+            Counter counter = counters.get(i);
+            result.put(counter.key(), counter.count(), counter.error());
+        }
+        return result;
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Integer.BYTES + size * 3 * Long.BYTES);
+        buffer.putInt(capacity).putInt(size);
+        for (int i = 0; i < size; i++) {
+            buffer.putLong(keys[i]).putLong(counts[i]).putLong(errors[i]);
+        }
+        return buffer.array();
+    }
+
+    public static SpaceSaving fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int capacity = buffer.getInt();
+        int size = buffer.getInt();
+        if (size < 0 || size > capacity || buffer.remaining() != size * 3 * Long.BYTES) {
+            throw new IllegalArgumentException("Некорректный снимок Space-Saving");
+        }
+        SpaceSaving sketch = new SpaceSaving(capacity);
+        for (int i = 0; i < size; i++) {
+            sketch.put(buffer.getLong(), buffer.getLong(), buffer.getLong());
+        }
+        return sketch;
+    }
+
+    private void put(long key, long count, long error) {
+        keys[size] = key;
+        counts[size] = count;
+        errors[size] = error;
+        positions.put(key, size);
+        siftUp(size++);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (counts[parent] <= counts[index]) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        long key = keys[i];
+        long count = counts[i];
+        long error = errors[i];
+        keys[i] = keys[j];
+        counts[i] = counts[j];
+        errors[i] = errors[j];
+        keys[j] = key;
+        counts[j] = count;
+        errors[j] = error;
+        positions.put(keys[i], i);
+        positions.put(keys[j], j);
+    }
+
+    public record Counter(long key, long count, long error) {
+    }
+}
@@ -0,0 +1,186 @@
+package ru.practicum.udp;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import ru.practicum.EndpointHitDto;
+import ru.practicum.HitBatchResultDto;
+import ru.practicum.HitDatagramCodec;
+import ru.practicum.config.UdpProperties;
+import ru.practicum.exception.HitBufferOverflowException;
+import ru.practicum.service.HitPartitionManager;
+import ru.practicum.service.StatsService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@ConditionalOnProperty(prefix = "stats.udp", name = "enabled", havingValue = "true")
+@Slf4j
+public class UdpHitListener implements SmartLifecycle {
+
+    private final UdpProperties properties;
+    private final StatsService statsService;
+    private final Counter receivedCounter;
+    private final Counter acceptedCounter;
+    private final Counter malformedCounter;
+    private final Counter invalidCounter;
+    private final Counter droppedCounter;
+    private final BlockingQueue<EndpointHitDto> queue;
+
+    private volatile boolean running;
+    private DatagramChannel channel;
+    private Thread receiver;
+    private Thread writer;
+
+    public UdpHitListener(UdpProperties properties, StatsService statsService, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.statsService = statsService;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        Gauge.builder("stats.udp.queued", queue, BlockingQueue::size)
+                .description("Количество принятых по UDP просмотров, ожидающих записи")
+                .register(meterRegistry);
+        this.receivedCounter = Counter.builder("stats.udp.packets")
+                .tag("result", "received")
+                .register(meterRegistry);
+        this.malformedCounter = Counter.builder("stats.udp.packets")
+                .tag("result", "malformed")
+                .register(meterRegistry);
+        this.acceptedCounter = Counter.builder("stats.udp.hits")
+                .tag("result", "accepted")
+                .register(meterRegistry);
+        this.invalidCounter = Counter.builder("stats.udp.hits")
+                .tag("result", "invalid")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("stats.udp.hits")
+                .tag("result", "dropped")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        try {
+            channel = DatagramChannel.open();
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, (int) properties.getReceiveBufferSize().toBytes());
+            channel.bind(new InetSocketAddress(properties.getHost(), properties.getPort()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть UDP-порт для приема просмотров", e);
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "udp-hit-writer");
+        writer.setDaemon(true);
+        writer.start();
+        receiver = new Thread(this::receiveLoop, "udp-hit-listener");
+        receiver.setDaemon(true);
+        receiver.start();
+        log.info("Прием просмотров по UDP включен: {}:{}", properties.getHost(), properties.getPort());
+    }
+
+    @Override
+    public void stop() {
+        try {
+            channel.close();
+            receiver.join(1000);
+            running = false;
+            writer.join(properties.getShutdownTimeout().toMillis());
+        } catch (IOException e) {
+            log.warn("Ошибка закрытия UDP-порта: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return channel != null && channel.isOpen();
+    }
+
+    @Override
+    public int getPhase() {
+        return HitPartitionManager.PHASE + 1;
+    }
+
+    private void receiveLoop() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HitDatagramCodec.MAX_DATAGRAM_SIZE + 1);
+        while (channel.isOpen()) {
+            try {
+                buffer.clear();
+                channel.receive(buffer);
+                buffer.flip();
+                receivedCounter.increment();
+                handle(buffer);
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                log.warn("Ошибка чтения UDP-датаграммы: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void handle(ByteBuffer datagram) {
+        if (datagram.remaining() > HitDatagramCodec.MAX_DATAGRAM_SIZE) {
+            malformedCounter.increment();
+            return;
+        }
+        List<EndpointHitDto> hits;
+        try {
+            hits = HitDatagramCodec.decode(datagram);
+        } catch (IllegalArgumentException e) {
+            malformedCounter.increment();
+            log.debug("Отброшена поврежденная UDP-датаграмма: {}", e.getMessage());
+            return;
+        }
+        for (EndpointHitDto hit : hits) {
+            if (!queue.offer(hit)) {
+                droppedCounter.increment();
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<EndpointHitDto> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                EndpointHitDto first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                save(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void save(List<EndpointHitDto> hits) {
+        try {
+            HitBatchResultDto result = statsService.saveAll(hits);
+            acceptedCounter.increment(result.getSaved());
+            invalidCounter.increment(result.getRejected().size());
+        } catch (HitBufferOverflowException e) {
+            droppedCounter.increment(hits.size());
+        } catch (RuntimeException e) {
+            droppedCounter.increment(hits.size());
+            log.error("Не удалось сохранить {} просмотров, принятых по UDP", hits.size(), e);
+        }
+    }
+}
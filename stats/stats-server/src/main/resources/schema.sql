@@ -1,10 +1,68 @@
-DROP TABLE IF EXISTS endpoint_hits;
+DROP TABLE IF EXISTS endpoint_hits CASCADE;
+DROP TABLE IF EXISTS hits_minute;
+DROP TABLE IF EXISTS hits_hour;
+DROP TABLE IF EXISTS hits_unique_sketch;
+DROP TABLE IF EXISTS hit_apps;
+DROP TABLE IF EXISTS hit_uris;
+
+CREATE TABLE IF NOT EXISTS hit_apps (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(32) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS hit_uris (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(128) NOT NULL UNIQUE
+);
 
 CREATE TABLE IF NOT EXISTS endpoint_hits (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
-    app VARCHAR(32) NOT NULL,
-    uri VARCHAR(128) NOT NULL,
-    ip VARCHAR(16) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    app_id INT NOT NULL,
+    uri_id INT NOT NULL,
+    ip BYTEA NOT NULL,
     "timestamp" TIMESTAMP WITHOUT TIME ZONE NOT NULL,
-    CONSTRAINT pk_endpoint_hits PRIMARY KEY (id)
-);
\ No newline at end of file
+    CONSTRAINT pk_endpoint_hits PRIMARY KEY (id, "timestamp")
+) PARTITION BY RANGE ("timestamp");
+
+CREATE TABLE IF NOT EXISTS endpoint_hits_default PARTITION OF endpoint_hits DEFAULT;
+
+CREATE INDEX IF NOT EXISTS idx_endpoint_hits_timestamp ON endpoint_hits ("timestamp");
+CREATE INDEX IF NOT EXISTS idx_endpoint_hits_uri_timestamp ON endpoint_hits (uri_id, "timestamp");
+
+CREATE TABLE IF NOT EXISTS hits_minute (
+    app_id INT NOT NULL,
+    uri_id INT NOT NULL,
+    bucket TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    hits BIGINT NOT NULL,
+    CONSTRAINT pk_hits_minute PRIMARY KEY (bucket, app_id, uri_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_hits_minute_uri ON hits_minute (uri_id, bucket);
+
+CREATE TABLE IF NOT EXISTS hits_hour (
+    app_id INT NOT NULL,
+    uri_id INT NOT NULL,
+    bucket TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    hits BIGINT NOT NULL,
+    CONSTRAINT pk_hits_hour PRIMARY KEY (bucket, app_id, uri_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_hits_hour_uri ON hits_hour (uri_id, bucket);
+
+CREATE TABLE IF NOT EXISTS hits_unique_sketch (
+    app_id INT NOT NULL,
+    uri_id INT NOT NULL,
+    bucket TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    sketch BYTEA NOT NULL,
+    hits BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT pk_hits_unique_sketch PRIMARY KEY (bucket, app_id, uri_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_hits_unique_sketch_uri ON hits_unique_sketch (uri_id, bucket);
+
+CREATE TABLE IF NOT EXISTS hits_top_sketch (
+    time_window VARCHAR(16) NOT NULL,
+    bucket TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    sketch BYTEA NOT NULL,
+    CONSTRAINT pk_hits_top_sketch PRIMARY KEY (time_window, bucket)
+);
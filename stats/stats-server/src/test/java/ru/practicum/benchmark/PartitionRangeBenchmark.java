@@ -0,0 +1,171 @@
+package ru.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.model.PartitionInterval;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Однодневные диапазонные запросы к endpoint_hits с партиционированием по дням и без него в PostgreSQL:
+ * тот же GROUP BY, что StatsRepository.countHitsInRange, по нескольким URI и по всем URI за день.
+ * Обе таблицы создаются в отдельной схеме stats_bench с одинаковыми индексами и данными.
+ * Глубина истории меняется при постоянном числе просмотров в день, поэтому по результатам для разных
+ * days видно, остается ли время однодневного запроса постоянным по мере роста таблицы. По умолчанию
+ * 730 дней дают 7.3 * 10^7 строк; прогон на 10^8 строк и больше:
+ * {@code -Dexec.args="PartitionRangeBenchmark -p rowsPerDay=200000"} (1.46 * 10^8 строк за 730 дней).
+ * База по умолчанию - из docker-compose, переопределяется через -Dbench.jdbc.url, -Dbench.jdbc.user
+ * и -Dbench.jdbc.password.
+ * Запуск: {@code mvn -pl stats/stats-server test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args=PartitionRangeBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PartitionRangeBenchmark {
+
+    private static final String SCHEMA = "stats_bench";
+    private static final int URIS = 10_000;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+    private static final String COUNT_BY_URIS = """
+            SELECT app_id, uri_id, COUNT(ip)
+            FROM %s
+            WHERE "timestamp" >= ? AND "timestamp" < ? AND uri_id IN (?, ?, ?)
+            GROUP BY app_id, uri_id
+            """;
+
+    private static final String COUNT_ALL_URIS = """
+            SELECT app_id, uri_id, COUNT(ip)
+            FROM %s
+            WHERE "timestamp" >= ? AND "timestamp" < ?
+            GROUP BY app_id, uri_id
+            """;
+
+    private static final String SEED = """
+            INSERT INTO %s (app_id, uri_id, ip, "timestamp")
+            SELECT 1, (random() * ?)::int, int4send((random() * 1048576)::int),
+                   ?::timestamp + random() * (? * interval '1 day')
+            FROM generate_series(1, ?)
+            """;
+
+    @Param({"partitioned", "plain"})
+    private String table;
+
+    @Param({"30", "180", "730"})
+    private int days;
+
+    @Param({"100000"})
+    private int rowsPerDay;
+
+    private Connection connection;
+    private PreparedStatement countByUris;
+    private PreparedStatement countAllUris;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:6543/ewm_stats_db");
+        connection = DriverManager.getConnection(url, System.getProperty("bench.jdbc.user", "stat_user"),
+                System.getProperty("bench.jdbc.password", "stat_password"));
+        String name = SCHEMA + ".hits_" + table;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA IF NOT EXISTS " + SCHEMA);
+            statement.execute("DROP TABLE IF EXISTS " + name + " CASCADE");
+            statement.execute("""
+                    CREATE TABLE %s (
+                        id BIGSERIAL NOT NULL,
+                        app_id INT NOT NULL,
+                        uri_id INT NOT NULL,
+                        ip BYTEA NOT NULL,
+                        "timestamp" TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+                        PRIMARY KEY (id, "timestamp")
+                    ) %s
+                    """.formatted(name, table.equals("partitioned") ? "PARTITION BY RANGE (\"timestamp\")" : ""));
+            if (table.equals("partitioned")) {
+                for (LocalDate day = FIRST_DAY; day.isBefore(FIRST_DAY.plusDays(days)); day = day.plusDays(1)) {
+                    statement.execute("CREATE TABLE %s.%s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')"
+                            .formatted(SCHEMA, PartitionInterval.DAY.partitionName(day), name, day, day.plusDays(1)));
+                }
+            }
+            statement.execute("CREATE INDEX ON " + name + " (\"timestamp\")");
+            statement.execute("CREATE INDEX ON " + name + " (uri_id, \"timestamp\")");
+        }
+        try (PreparedStatement seed = connection.prepareStatement(SEED.formatted(name))) {
+            seed.setInt(1, URIS);
+            seed.setTimestamp(2, Timestamp.valueOf(FIRST_DAY.atStartOfDay()));
+            seed.setInt(3, days);
+            seed.setLong(4, (long) days * rowsPerDay);
+            seed.executeUpdate();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE " + name);
+        }
+        countByUris = connection.prepareStatement(COUNT_BY_URIS.formatted(name));
+        countAllUris = connection.prepareStatement(COUNT_ALL_URIS.formatted(name));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + SCHEMA + ".hits_" + table + " CASCADE");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int dayByUris() throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        setDay(countByUris);
+        for (int i = 0; i < 3; i++) {
+            countByUris.setInt(3 + i, random.nextInt(URIS));
+        }
+        return rows(countByUris);
+    }
+
+    @Benchmark
+    public int dayAllUris() throws SQLException {
+        setDay(countAllUris);
+        return rows(countAllUris);
+    }
+
+    private void setDay(PreparedStatement statement) throws SQLException {
+        next = (next + 1) % days;
+        LocalDate day = FIRST_DAY.plusDays(next);
+        statement.setTimestamp(1, Timestamp.valueOf(day.atStartOfDay()));
+        statement.setTimestamp(2, Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+    }
+
+    private static int rows(PreparedStatement statement) throws SQLException {
+        int rows = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,148 @@
+package ru.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.memory.LongCounterMap;
+import ru.practicum.memory.RecentHitRing;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ответ на типичный запрос main-service (несколько URI за последние 5 минут или час) из кольца в памяти
+ * и тем же GROUP BY, что StatsRepository.countHitsInRange, по индексированной таблице в H2.
+ * H2 в памяти заменяет PostgreSQL и дает нижнюю оценку стоимости пути через БД.
+ * Запуск: {@code java -cp <test classpath> org.openjdk.jmh.Main RecentHitsBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecentHitsBenchmark {
+
+    private static final String COUNT_HITS = """
+            SELECT app_id, uri_id, COUNT(ip)
+            FROM endpoint_hits
+            WHERE "timestamp" >= ? AND "timestamp" < ? AND uri_id IN (?, ?, ?)
+            GROUP BY app_id, uri_id
+            """;
+
+    private static final int URIS = 10_000;
+    private static final long WINDOW_SECONDS = 6 * 3600;
+
+    @Param({"100000", "1000000"})
+    private int hits;
+
+    @Param({"300", "3600"})
+    private int rangeSeconds;
+
+    private RecentHitRing ring;
+    private Connection connection;
+    private PreparedStatement countHits;
+    private long now;
+    private int[][] uriFilters;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        now = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+        ring = new RecentHitRing(hits, now - WINDOW_SECONDS);
+        connection = DriverManager.getConnection("jdbc:h2:mem:recent_hits_benchmark");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE endpoint_hits (
+                        id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                        app_id INT NOT NULL,
+                        uri_id INT NOT NULL,
+                        ip BIGINT NOT NULL,
+                        "timestamp" TIMESTAMP NOT NULL
+                    )
+                    """);
+            statement.execute("CREATE INDEX idx_uri_timestamp ON endpoint_hits (uri_id, \"timestamp\")");
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO endpoint_hits (app_id, uri_id, ip, \"timestamp\") VALUES (1, ?, ?, ?)")) {
+            for (int i = 0; i < hits; i++) {
+                long epochSecond = now - WINDOW_SECONDS + WINDOW_SECONDS * i / hits;
+                int uriId = random.nextInt(URIS);
+                long ip = random.nextInt(1 << 20);
+                ring.add(1, uriId, epochSecond, ip);
+                insert.setInt(1, uriId);
+                insert.setLong(2, ip);
+                insert.setTimestamp(3, timestamp(epochSecond));
+                insert.addBatch();
+                if (i % 10_000 == 9_999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        countHits = connection.prepareStatement(COUNT_HITS);
+        uriFilters = new int[1024][];
+        for (int i = 0; i < uriFilters.length; i++) {
+            uriFilters[i] = new int[]{random.nextInt(URIS), random.nextInt(URIS), random.nextInt(URIS)};
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public int memoryRing() {
+        int[] uriFilter = nextFilter();
+        LongCounterMap counts = new LongCounterMap(uriFilter.length);
+        ring.count(now - rangeSeconds, now, uriFilter, counts);
+        return counts.size();
+    }
+
+    @Benchmark
+    public int database() throws SQLException {
+        int[] uriFilter = nextFilter();
+        countHits.setTimestamp(1, timestamp(now - rangeSeconds));
+        countHits.setTimestamp(2, timestamp(now + 1));
+        for (int i = 0; i < uriFilter.length; i++) {
+            countHits.setInt(3 + i, uriFilter[i]);
+        }
+        int rows = 0;
+        try (ResultSet resultSet = countHits.executeQuery()) {
+            while (resultSet.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private int[] nextFilter() {
+        next = (next + 1) & (uriFilters.length - 1);
+        return uriFilters[next];
+    }
+
+    private static Timestamp timestamp(long epochSecond) {
+        return Timestamp.valueOf(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC));
+    }
+}
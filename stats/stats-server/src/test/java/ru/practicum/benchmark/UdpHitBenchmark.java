@@ -0,0 +1,225 @@
+package ru.practicum.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.servlet.context.AnnotationConfigServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import ru.practicum.EndpointHitDto;
+import ru.practicum.HitBatchResultDto;
+import ru.practicum.HitDatagramCodec;
+import ru.practicum.config.StreamingProperties;
+import ru.practicum.config.UdpProperties;
+import ru.practicum.controller.StatsController;
+import ru.practicum.service.StatsService;
+import ru.practicum.udp.UdpHitListener;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Пропускная способность приема просмотров по UDP через loopback: по одному просмотру в датаграмме
+ * и пакетами, как их собирает UdpHitSender. Прием идет в настоящий UdpHitListener с заглушкой StatsService;
+ * после прогона печатается доля просмотров, дошедших до StatsService. Для сравнения те же просмотры
+ * отправляются по HTTP в настоящий StatsController на встроенном Tomcat: по одному POST /hit на просмотр
+ * и одним POST /hits на пакет.
+ * Запуск: {@code java -cp <test classpath> org.openjdk.jmh.Main UdpHitBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UdpHitBenchmark {
+
+    private static final int HITS = 256;
+    private static final int PORT = 19091;
+    private static final int HTTP_PORT = 19092;
+
+    private final LongAdder saved = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+
+    private UdpHitListener listener;
+    private DatagramChannel channel;
+    private InetSocketAddress target;
+    private List<ByteBuffer> single;
+    private List<ByteBuffer> batched;
+    private AnnotationConfigServletWebServerApplicationContext httpServer;
+    private HttpClient httpClient;
+    private List<HttpRequest> singleRequests;
+    private HttpRequest batchRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        StatsService statsService = mock(StatsService.class);
+        when(statsService.saveAll(anyList())).thenAnswer(invocation -> {
+            List<?> hits = invocation.getArgument(0);
+            saved.add(hits.size());
+            return new HitBatchResultDto(hits.size(), List.of());
+        });
+        doAnswer(invocation -> {
+            saved.increment();
+            return null;
+        }).when(statsService).save(any());
+        UdpProperties properties = new UdpProperties();
+        properties.setHost("127.0.0.1");
+        properties.setPort(PORT);
+        listener = new UdpHitListener(properties, statsService, new SimpleMeterRegistry());
+        listener.start();
+
+        channel = DatagramChannel.open();
+        target = new InetSocketAddress("127.0.0.1", PORT);
+        List<EndpointHitDto> hits = new ArrayList<>(HITS);
+        single = new ArrayList<>(HITS);
+        for (int i = 0; i < HITS; i++) {
+            EndpointHitDto hit = new EndpointHitDto("ewm-main-service", "/events/" + i, "10.0.0." + (i % 250),
+                    LocalDateTime.now());
+            hits.add(hit);
+            single.add(ByteBuffer.wrap(HitDatagramCodec.encode(hit)));
+        }
+        batched = pack(hits);
+
+        httpServer = new AnnotationConfigServletWebServerApplicationContext();
+        httpServer.registerBean(StatsService.class, () -> statsService);
+        httpServer.register(HttpIngest.class);
+        httpServer.refresh();
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        singleRequests = new ArrayList<>(HITS);
+        for (EndpointHitDto hit : hits) {
+            singleRequests.add(post("/hit", objectMapper.writeValueAsBytes(hit)));
+        }
+        batchRequest = post("/hits", objectMapper.writeValueAsBytes(hits));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        Thread.sleep(500);
+        listener.stop();
+        channel.close();
+        httpServer.close();
+        System.out.printf("%nДоставлено до StatsService: %d из %d просмотров%n", saved.sum(), sent.sum());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HITS)
+    public void singleHitDatagrams() throws IOException {
+        send(single);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HITS)
+    public void batchedDatagrams() throws IOException {
+        send(batched);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HITS)
+    public void singleHitHttpPosts() throws IOException, InterruptedException {
+        for (HttpRequest request : singleRequests) {
+            httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        }
+        sent.add(HITS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HITS)
+    public void batchedHttpPost() throws IOException, InterruptedException {
+        httpClient.send(batchRequest, HttpResponse.BodyHandlers.discarding());
+        sent.add(HITS);
+    }
+
+    private void send(List<ByteBuffer> datagrams) throws IOException {
+        for (ByteBuffer datagram : datagrams) {
+            channel.send(datagram.rewind(), target);
+        }
+        sent.add(HITS);
+    }
+
+    private static HttpRequest post(String path, byte[] body) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + HTTP_PORT + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+    }
+
+    private static List<ByteBuffer> pack(List<EndpointHitDto> hits) {
+        List<ByteBuffer> datagrams = new ArrayList<>();
+        List<EndpointHitDto> batch = new ArrayList<>();
+        int size = HitDatagramCodec.HEADER_SIZE;
+        for (EndpointHitDto hit : hits) {
+            int hitSize = HitDatagramCodec.encodedSize(hit);
+            if (batch.size() == HitDatagramCodec.MAX_HITS || size + hitSize > HitDatagramCodec.MAX_DATAGRAM_SIZE) {
+                datagrams.add(ByteBuffer.wrap(HitDatagramCodec.encode(batch)));
+                batch.clear();
+                size = HitDatagramCodec.HEADER_SIZE;
+            }
+            batch.add(hit);
+            size += hitSize;
+        }
+        datagrams.add(ByteBuffer.wrap(HitDatagramCodec.encode(batch)));
+        return datagrams;
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @Import(StatsController.class)
+    static class HttpIngest {
+
+        @Bean
+        TomcatServletWebServerFactory webServerFactory() {
+            return new TomcatServletWebServerFactory(HTTP_PORT);
+        }
+
+        @Bean
+        DispatcherServlet dispatcherServlet() {
+            return new DispatcherServlet();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return Jackson2ObjectMapperBuilder.json().build();
+        }
+
+        @Bean
+        StreamingProperties streamingProperties() {
+            return new StreamingProperties();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package ru.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.model.HitCount;
+import ru.practicum.model.RollupKey;
+import ru.practicum.repository.HitSketchRepository;
+import ru.practicum.service.StatsQueryPlanner;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Уникальные просмотры за окно по PostgreSQL: точный COUNT(DISTINCT ip) в том виде, в каком его выполняет
+ * StatsRepository.findUniqueStats, против StatsQueryPlanner.estimateUniqueHits (часовые скетчи плюс сырые
+ * IP на невыровненных краях окна). Таблицы создаются из schema.sql в отдельной схеме stats_bench, скетчи
+ * строятся через HitSketchRepository.rebuild. После прогона печатается погрешность оценки.
+ * База по умолчанию - из docker-compose, переопределяется через -Dbench.jdbc.url, -Dbench.jdbc.user
+ * и -Dbench.jdbc.password.
+ * Запуск: {@code mvn -pl stats/stats-server test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args=UniqueCountBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UniqueCountBenchmark {
+
+    private static final String SCHEMA = "stats_bench";
+    private static final int URIS = 10;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+    private static final String EXACT = """
+            SELECT e.app_id, e.uri_id, COUNT(DISTINCT e.ip)
+            FROM endpoint_hits e
+            WHERE e."timestamp" BETWEEN ? AND ? AND e.uri_id IN (1, 2, 3)
+            GROUP BY e.app_id, e.uri_id
+            """;
+
+    private static final String SEED_HITS = """
+            INSERT INTO endpoint_hits (app_id, uri_id, ip, "timestamp")
+            SELECT 1, 1 + g % ?, int4send((random() * ?)::int), ?::timestamp + (g % 86400) * interval '1 second'
+            FROM generate_series(0, ? - 1) g
+            """;
+
+    private static final String SEED_HOURS = """
+            INSERT INTO hits_hour (app_id, uri_id, bucket, hits)
+            SELECT app_id, uri_id, date_trunc('hour', "timestamp"), COUNT(*)
+            FROM endpoint_hits
+            GROUP BY app_id, uri_id, date_trunc('hour', "timestamp")
+            """;
+
+    @Param({"1000000"})
+    private int hits;
+
+    @Param({"1000", "100000"})
+    private int distinct;
+
+    @Param({"1", "24"})
+    private int rangeHours;
+
+    private JdbcTemplate jdbcTemplate;
+    private StatsQueryPlanner planner;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String url = System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:6543/ewm_stats_db");
+        String user = System.getProperty("bench.jdbc.user", "stat_user");
+        String password = System.getProperty("bench.jdbc.password", "stat_password");
+        new JdbcTemplate(new DriverManagerDataSource(url, user, password))
+                .execute("CREATE SCHEMA IF NOT EXISTS " + SCHEMA);
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA, user, password);
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update(SEED_HITS, URIS, distinct, Timestamp.valueOf(BASE), hits);
+        jdbcTemplate.update(SEED_HOURS);
+        jdbcTemplate.execute("ANALYZE");
+
+        HitSketchRepository sketchRepository = new HitSketchRepository(jdbcTemplate,
+                new NamedParameterJdbcTemplate(jdbcTemplate));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        for (RollupKey key : sketchRepository.findUnsketchedHours(BASE)) {
+            transactionTemplate.executeWithoutResult(status -> sketchRepository.rebuild(key));
+        }
+        planner = new StatsQueryPlanner(null, null, sketchRepository);
+
+        start = BASE.plusMinutes(30);
+        end = start.plusHours(rangeHours).minusSeconds(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void reportAccuracy() {
+        long exact = exactCountDistinct().stream().mapToLong(HitCount::hits).sum();
+        long estimate = sketches().stream().mapToLong(HitCount::hits).sum();
+        System.out.printf("%nCOUNT(DISTINCT ip) %d, оценка по скетчам %d, ошибка %.3f%%%n",
+                exact, estimate, Math.abs(estimate - exact) * 100.0 / exact);
+        jdbcTemplate.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+    }
+
+    @Benchmark
+    public List<HitCount> exactCountDistinct() {
+        return jdbcTemplate.query(EXACT, (rs, rowNum) -> new HitCount(rs.getInt(1), rs.getInt(2), rs.getLong(3)),
+                Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+
+    @Benchmark
+    public List<HitCount> sketches() {
+        return planner.estimateUniqueHits(start, end, List.of(1, 2, 3));
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.config.StreamingProperties;
+import ru.practicum.exception.GlobalExceptionHandler;
+import ru.practicum.service.StatsService;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class StatsControllerTest {
+
+    private final StatsService statsService = mock(StatsService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        StatsController controller = new StatsController(statsService, new ObjectMapper(), new StreamingProperties());
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void streamRejectsInvalidRangeBeforeResponseStarts() throws Exception {
+        doThrow(new IllegalArgumentException("Начало должно быть до окончания"))
+                .when(statsService).validateRange("2024-01-02 00:00:00", "2024-01-01 00:00:00");
+
+        mockMvc.perform(get("/stats")
+                        .accept("application/x-ndjson")
+                        .param("start", "2024-01-02 00:00:00")
+                        .param("end", "2024-01-01 00:00:00"))
+                .andExpect(status().isBadRequest());
+
+        verify(statsService, never()).streamStats(anyString(), anyString(), any(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    void streamRejectsMissingParameterWithJsonError() throws Exception {
+        mockMvc.perform(get("/stats")
+                        .accept("application/x-ndjson")
+                        .param("start", "2024-01-01 00:00:00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+}
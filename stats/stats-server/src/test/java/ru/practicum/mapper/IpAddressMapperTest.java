@@ -0,0 +1,30 @@
+package ru.practicum.mapper;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IpAddressMapperTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.0.0.0", "10.0.0.1", "255.255.255.255", "::", "::1", "1::", "fe80::1",
+            "2001:db8:0:0:1:0:0:1", "2001:DB8::8:800:200C:417A", "::ffff:1.2.3.4", "::1.2.3.4",
+            "1:2:3:4:5:6:1.2.3.4", "1:2:3:4:5:6:7::", "1:2:3:4:5:6:7:8"})
+    void parsesLiteralsLikeInetAddress(String ip) throws UnknownHostException {
+        assertThat(IpAddressMapper.toBytes(ip)).isEqualTo(InetAddress.getByName(ip).getAddress());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "localhost", "stats-server", "999.1.1.1", "1.2.3.256", "1.2.3", "1.2.3.4.",
+            "1.2.3.4.5", "foo:bar", ":1", "1:", "1:::2", "1::2::3", "12345::", "1:2:3:4:5:6:7:8:9",
+            "1:2:3:4:5:6:7:8::", "fe80::1%eth0", "[::1]", "::ffff:999.1.1.1", "1:2:3:4:5:6:7:1.2.3.4"})
+    void rejectsAnythingButLiteralAddress(String ip) {
+        assertThatThrownBy(() -> IpAddressMapper.toBytes(ip))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
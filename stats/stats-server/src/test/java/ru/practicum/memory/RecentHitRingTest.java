@@ -0,0 +1,145 @@
+package ru.practicum.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentHitRingTest {
+
+    private static final long BASE = 1_700_000_000L;
+    private static final long KEY = (1L << 32) | 7;
+
+    @Test
+    void countsHitsInsideRange() {
+        RecentHitRing ring = new RecentHitRing(16, BASE);
+        ring.add(1, 7, BASE + 1, 100);
+        ring.add(1, 7, BASE + 2, 100);
+        ring.add(1, 8, BASE + 2, 100);
+        ring.add(1, 7, BASE + 10, 101);
+
+        assertThat(count(ring, BASE, BASE + 5, new int[]{7})).containsExactly(Map.entry(KEY, 2L));
+        assertThat(countDistinct(ring, BASE, BASE + 10, new int[]{7})).containsExactly(Map.entry(KEY, 2L));
+        assertThat(count(ring, BASE, BASE + 10, null)).hasSize(2);
+    }
+
+    @Test
+    void evictsOldestHitsAndMovesCoverage() {
+        RecentHitRing ring = new RecentHitRing(8, BASE);
+        for (int i = 0; i < 12; i++) {
+            ring.add(1, 7, BASE + i, i);
+        }
+
+        assertThat(ring.capacity()).isEqualTo(8);
+        assertThat(ring.coveredFrom()).isEqualTo(BASE + 4);
+        assertThat(count(ring, BASE, BASE + 100, null)).containsExactly(Map.entry(KEY, 8L));
+        assertThat(count(ring, BASE, BASE + 3, null)).isEmpty();
+    }
+
+    @Test
+    void blockIndexNeverHidesMatchingHitsAfterWrapAround() {
+        RecentHitRing ring = new RecentHitRing(4096, BASE);
+        Random random = new Random(42);
+        long[] times = new long[10_000];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = BASE + i / 10 + random.nextInt(30) - 15;
+            ring.add(1, 7, times[i], i);
+        }
+
+        for (int query = 0; query < 200; query++) {
+            long from = BASE + random.nextInt(1_100) - 50;
+            long to = from + random.nextInt(200);
+            long expected = 0;
+            for (int i = times.length - ring.capacity(); i < times.length; i++) {
+                if (times[i] >= from && times[i] <= to) {
+                    expected++;
+                }
+            }
+            assertThat(count(ring, from, to, null).getOrDefault(KEY, 0L)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void readersNeverSeeTornOrPhantomHits() throws Exception {
+        RecentHitRing ring = new RecentHitRing(1 << 12, BASE);
+        int writers = 4;
+        int hitsPerWriter = 200_000;
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+        try {
+            Future<?>[] writerTasks = new Future<?>[writers];
+            for (int w = 0; w < writers; w++) {
+                int uriId = 10 + w;
+                writerTasks[w] = executor.submit(() -> {
+                    started.await();
+                    for (int i = 0; i < hitsPerWriter; i++) {
+                        ring.add(uriId, uriId, BASE + uriId, uriId);
+                    }
+                    return null;
+                });
+            }
+            Future<?>[] readers = new Future<?>[2];
+            for (int r = 0; r < readers.length; r++) {
+                readers[r] = executor.submit(() -> {
+                    started.await();
+                    while (writing.get()) {
+                        LongCounterMap counts = new LongCounterMap(8);
+                        ring.count(BASE, BASE + 100, null, counts);
+                        long[] total = {0};
+                        counts.forEach((key, hits) -> {
+                            int appId = (int) (key >>> 32);
+                            assertThat(appId).isEqualTo((int) key).isBetween(10, 10 + writers - 1);
+                            total[0] += hits;
+                        });
+                        assertThat(total[0]).isLessThanOrEqualTo(ring.capacity());
+                        LongCounterMap distinct = new LongCounterMap(8);
+                        ring.countDistinctIps(BASE, BASE + 100, null, distinct);
+                        distinct.forEach((key, hits) -> assertThat(hits).isEqualTo(1));
+                    }
+                    return null;
+                });
+            }
+            started.countDown();
+            for (Future<?> task : writerTasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long total = count(ring, BASE, BASE + 100, null).values().stream().mapToLong(Long::longValue).sum();
+        assertThat(total).isEqualTo(ring.capacity());
+    }
+
+    private static Map<Long, Long> count(RecentHitRing ring, long from, long to, int[] uriFilter) {
+        LongCounterMap counts = new LongCounterMap(8);
+        ring.count(from, to, uriFilter, counts);
+        return toMap(counts);
+    }
+
+    private static Map<Long, Long> countDistinct(RecentHitRing ring, long from, long to, int[] uriFilter) {
+        LongCounterMap counts = new LongCounterMap(8);
+        ring.countDistinctIps(from, to, uriFilter, counts);
+        return toMap(counts);
+    }
+
+    private static Map<Long, Long> toMap(LongCounterMap counts) {
+        Map<Long, Long> result = new HashMap<>();
+        counts.forEach(result::put);
+        return result;
+    }
+}
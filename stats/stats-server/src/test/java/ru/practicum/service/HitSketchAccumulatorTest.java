@@ -0,0 +1,113 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import ru.practicum.config.SketchProperties;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.RollupKey;
+import ru.practicum.repository.HitSketchRepository;
+import ru.practicum.sketch.SketchDelta;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HitSketchAccumulatorTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 10, 15);
+
+    private final HitSketchRepository repository = mock(HitSketchRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final HitSketchAccumulator accumulator;
+
+    HitSketchAccumulatorTest() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        accumulator = new HitSketchAccumulator(repository, transactionManager, new SketchProperties(),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mergesBatchesIntoOneSketchPerKey() {
+        accumulator.add(List.of(hit(1, NOW), hit(2, NOW)));
+        accumulator.add(List.of(hit(2, NOW.plusMinutes(10)), hit(3, NOW.plusHours(1))));
+
+        accumulator.flush();
+
+        ArgumentCaptor<Map<RollupKey, SketchDelta>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(repository).merge(captor.capture());
+        Map<RollupKey, SketchDelta> flushed = captor.getValue();
+        assertThat(flushed).hasSize(2);
+        SketchDelta first = flushed.get(new RollupKey(1, 1, NOW.withMinute(0)));
+        assertThat(first.getSketch().estimate()).isEqualTo(2);
+        assertThat(first.getHits()).isEqualTo(3);
+        assertThat(flushed.get(new RollupKey(1, 1, NOW.withMinute(0).plusHours(1))).getHits()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void keepsBatchAfterFailedFlush() {
+        doThrow(new IllegalStateException("db down")).doNothing().when(repository).merge(anyMap());
+        accumulator.add(List.of(hit(1, NOW)));
+
+        accumulator.flush();
+        accumulator.add(List.of(hit(2, NOW)));
+        accumulator.flush();
+
+        ArgumentCaptor<Map<RollupKey, SketchDelta>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(repository, times(2)).merge(captor.capture());
+        SketchDelta retried = captor.getValue().get(new RollupKey(1, 1, NOW.withMinute(0)));
+        assertThat(retried.getSketch().estimate()).isEqualTo(2);
+        assertThat(retried.getHits()).isEqualTo(2);
+    }
+
+    @Test
+    void skipsEmptyFlush() {
+        accumulator.flush();
+
+        verify(repository, times(0)).merge(anyMap());
+    }
+
+    @Test
+    void rebuildsEveryUnsketchedHourInItsOwnTransaction() {
+        RollupKey first = new RollupKey(1, 1, NOW.withMinute(0));
+        RollupKey second = new RollupKey(1, 2, NOW.withMinute(0).plusHours(1));
+        when(repository.findUnsketchedHours(any())).thenReturn(List.of(first, second));
+
+        accumulator.rebuildUnsketchedHours();
+
+        verify(repository).rebuild(first);
+        verify(repository).rebuild(second);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void skipsRebuildWhenAllHoursAreSketched() {
+        when(repository.findUnsketchedHours(any())).thenReturn(List.of());
+
+        accumulator.rebuildUnsketchedHours();
+
+        verify(repository, times(0)).rebuild(any());
+    }
+
+    private static EndpointHit hit(int ip, LocalDateTime timestamp) {
+        EndpointHit hit = new EndpointHit();
+        hit.setAppId(1);
+        hit.setUriId(1);
+        hit.setIp(new byte[]{10, 0, 0, (byte) ip});
+        hit.setTimestamp(timestamp);
+        return hit;
+    }
+}
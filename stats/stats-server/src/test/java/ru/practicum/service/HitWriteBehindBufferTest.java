@@ -0,0 +1,89 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.config.WriteBehindProperties;
+import ru.practicum.model.EndpointHit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class HitWriteBehindBufferTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HitWriter hitWriter = mock(HitWriter.class);
+    private WriteBehindProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new WriteBehindProperties();
+        properties.setEnabled(true);
+        properties.setFlushInterval(Duration.ofMillis(10));
+        properties.setFlushRetryBackoff(Duration.ofMillis(1));
+        properties.setMaxFlushRetryBackoff(Duration.ofMillis(5));
+        properties.setMaxFlushAttempts(3);
+    }
+
+    @Test
+    void retriesFailedBatchUntilItIsWritten() throws InterruptedException {
+        doThrow(new IllegalStateException("db down"))
+                .doThrow(new IllegalStateException("db down"))
+                .doNothing()
+                .when(hitWriter).write(anyList());
+        HitWriteBehindBuffer buffer = new HitWriteBehindBuffer(properties, hitWriter, meterRegistry);
+        buffer.start();
+
+        assertThat(buffer.offer(hit())).isTrue();
+        buffer.stop();
+
+        verify(hitWriter, times(3)).write(anyList());
+        assertThat(dropped()).isZero();
+        assertThat(meterRegistry.counter("stats.write_behind.flush.retries").count()).isEqualTo(2);
+    }
+
+    @Test
+    void dropsBatchAfterMaxAttempts() throws InterruptedException {
+        doThrow(new IllegalStateException("db down")).when(hitWriter).write(anyList());
+        HitWriteBehindBuffer buffer = new HitWriteBehindBuffer(properties, hitWriter, meterRegistry);
+        buffer.start();
+
+        buffer.offer(hit());
+        buffer.offer(hit());
+        buffer.stop();
+
+        verify(hitWriter, times(3)).write(anyList());
+        assertThat(dropped()).isEqualTo(2);
+    }
+
+    @Test
+    void writesWithoutRetryWhenDatabaseIsHealthy() throws InterruptedException {
+        doNothing().when(hitWriter).write(anyList());
+        HitWriteBehindBuffer buffer = new HitWriteBehindBuffer(properties, hitWriter, meterRegistry);
+        buffer.start();
+
+        buffer.offer(hit());
+        buffer.stop();
+
+        verify(hitWriter, times(1)).write(anyList());
+        assertThat(dropped()).isZero();
+    }
+
+    private double dropped() {
+        return meterRegistry.counter("stats.write_behind.dropped", "reason", "flush_error").count();
+    }
+
+    private static EndpointHit hit() {
+        EndpointHit hit = new EndpointHit();
+        hit.setTimestamp(LocalDateTime.now());
+        return hit;
+    }
+}
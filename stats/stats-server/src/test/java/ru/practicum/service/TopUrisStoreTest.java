@@ -0,0 +1,62 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.config.TopUrisProperties;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.TopWindow;
+import ru.practicum.repository.HitTopSketchRepository;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TopUrisStoreTest {
+
+    private final HitTopSketchRepository repository = mock(HitTopSketchRepository.class);
+    private final TopUrisStore store;
+
+    TopUrisStoreTest() {
+        TopUrisProperties properties = new TopUrisProperties();
+        properties.setEnabled(true);
+        store = new TopUrisStore(properties, repository, mock(HitDictionary.class));
+    }
+
+    @Test
+    void failedSnapshotIsRetriedOnNextRun() {
+        doThrow(new IllegalStateException("db down")).doNothing()
+                .when(repository).save(eq(TopWindow.HOUR), anyMap());
+        store.record(hit());
+
+        store.snapshot();
+        store.snapshot();
+
+        verify(repository, times(2)).save(eq(TopWindow.HOUR), argThat(sketches -> sketches.size() == 1));
+    }
+
+    @Test
+    void savedSnapshotIsNotWrittenAgain() {
+        doNothing().when(repository).save(any(), anyMap());
+        store.record(hit());
+
+        store.snapshot();
+        store.snapshot();
+
+        verify(repository, times(1)).save(eq(TopWindow.HOUR), anyMap());
+    }
+
+    private static EndpointHit hit() {
+        EndpointHit hit = new EndpointHit();
+        hit.setAppId(1);
+        hit.setUriId(2);
+        hit.setTimestamp(LocalDateTime.now());
+        return hit;
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.sketch;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HyperLogLogTest {
+
+    private static final double STANDARD_ERROR = 1.04 / Math.sqrt(HyperLogLog.REGISTERS);
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 10_000, 100_000, 1_000_000})
+    void estimateStaysWithinThreeStandardErrors(int distinct) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < distinct; i++) {
+            sketch.add(ip(i));
+            sketch.add(ip(i));
+        }
+
+        double relativeError = Math.abs(sketch.estimate() - distinct) / (double) distinct;
+
+        assertThat(relativeError).isLessThan(3 * STANDARD_ERROR);
+    }
+
+    @Test
+    void smallCardinalityIsNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 100; i++) {
+            sketch.add(ip(i));
+        }
+
+        assertThat(sketch.estimate()).isBetween(98L, 102L);
+    }
+
+    @Test
+    void mergeEqualsSketchOfUnion() {
+        HyperLogLog left = new HyperLogLog();
+        HyperLogLog right = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        for (int i = 0; i < 50_000; i++) {
+            left.add(ip(i));
+            union.add(ip(i));
+        }
+        for (int i = 25_000; i < 75_000; i++) {
+            right.add(ip(i));
+            union.add(ip(i));
+        }
+
+        left.merge(right);
+
+        assertThat(left.toBytes()).isEqualTo(union.toBytes());
+    }
+
+    @Test
+    void survivesSerialization() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 10_000; i++) {
+            sketch.add(ip(i));
+        }
+
+        assertThat(HyperLogLog.fromBytes(sketch.toBytes()).estimate()).isEqualTo(sketch.estimate());
+    }
+
+    @Test
+    void smallSketchIsStoredSparse() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 5; i++) {
+            sketch.add(ip(i));
+        }
+
+        byte[] bytes = sketch.toBytes();
+
+        assertThat(bytes.length).isLessThanOrEqualTo(1 + 5 * 3);
+        assertThat(HyperLogLog.fromBytes(bytes).toBytes()).isEqualTo(bytes);
+        assertThat(HyperLogLog.fromBytes(bytes).estimate()).isEqualTo(sketch.estimate());
+    }
+
+    @Test
+    void switchesToDenseWhenSparseIsNotSmaller() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 100_000; i++) {
+            sketch.add(ip(i));
+        }
+
+        byte[] bytes = sketch.toBytes();
+
+        assertThat(bytes).hasSize(HyperLogLog.REGISTERS);
+        assertThat(HyperLogLog.fromBytes(bytes).estimate()).isEqualTo(sketch.estimate());
+    }
+
+    @Test
+    void readsDenseRegistersOfSmallSketch() {
+        byte[] dense = new byte[HyperLogLog.REGISTERS];
+        dense[7] = 3;
+        dense[4000] = 1;
+
+        HyperLogLog sketch = HyperLogLog.fromBytes(dense);
+
+        assertThat(sketch.toBytes()).containsExactly(1, 0, 7, 3, 15, (byte) 160, 1);
+    }
+
+    private static byte[] ip(int i) {
+        return ByteBuffer.allocate(4).putInt(i).array();
+    }
+}
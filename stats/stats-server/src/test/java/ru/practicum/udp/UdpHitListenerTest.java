@@ -0,0 +1,89 @@
+package ru.practicum.udp;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.EndpointHitDto;
+import ru.practicum.HitBatchResultDto;
+import ru.practicum.HitDatagramCodec;
+import ru.practicum.config.UdpProperties;
+import ru.practicum.service.StatsService;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UdpHitListenerTest {
+
+    private static final int PORT = 19092;
+
+    private final StatsService statsService = mock(StatsService.class);
+    private UdpHitListener listener;
+
+    @AfterEach
+    void tearDown() {
+        listener.stop();
+    }
+
+    @Test
+    void receiveThreadHandsHitsOffToWriterThread() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(statsService.saveAll(anyList())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            List<?> hits = invocation.getArgument(0);
+            return new HitBatchResultDto(hits.size(), List.of());
+        });
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        listener = new UdpHitListener(properties(), statsService, meterRegistry);
+        listener.start();
+
+        send(List.of(hit("/events/1")));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        send(List.of(hit("/events/2"), hit("/events/3")));
+        awaitCount(meterRegistry, "stats.udp.packets", "received", 2);
+
+        assertThat(meterRegistry.get("stats.udp.queued").gauge().value()).isEqualTo(2);
+        release.countDown();
+        awaitCount(meterRegistry, "stats.udp.hits", "accepted", 3);
+    }
+
+    private void send(List<EndpointHitDto> hits) throws IOException {
+        try (DatagramChannel channel = DatagramChannel.open()) {
+            channel.send(ByteBuffer.wrap(HitDatagramCodec.encode(hits)), new InetSocketAddress("127.0.0.1", PORT));
+        }
+    }
+
+    private static void awaitCount(SimpleMeterRegistry registry, String name, String result, double expected)
+            throws InterruptedException {
+        Counter counter = registry.get(name).tag("result", result).counter();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (counter.count() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(counter.count()).isEqualTo(expected);
+    }
+
+    private static UdpProperties properties() {
+        UdpProperties properties = new UdpProperties();
+        properties.setHost("127.0.0.1");
+        properties.setPort(PORT);
+        return properties;
+    }
+
+    private static EndpointHitDto hit(String uri) {
+        return new EndpointHitDto("ewm-main-service", uri, "10.0.0.1", LocalDateTime.now());
+    }
+}